@@ -0,0 +1,110 @@
+package com.nikworkspace.AnyShare.benchmark;
+
+import com.nikworkspace.AnyShare.config.JwtConfig;
+import com.nikworkspace.AnyShare.entity.SessionEntity;
+import com.nikworkspace.AnyShare.repository.SessionRepository;
+import com.nikworkspace.AnyShare.repository.UserRepository;
+import com.nikworkspace.AnyShare.service.SessionStatusBroadcaster;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.util.CodeGenerator;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wiring for benchmarks: real services without Spring, the database replaced by in-memory maps
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "BenchmarkSecretKeyThatIsLongEnoughForHS256SigningAlgorithm0123456789";
+    static final long JWT_EXPIRATION_MS = 300_000;
+
+    // Data-channel-only offer as produced by Chrome, the shape AnyShare peers exchange
+    static final String OFFER_SDP = """
+            v=0\r
+            o=- 4611731400430051336 2 IN IP4 127.0.0.1\r
+            s=-\r
+            t=0 0\r
+            a=group:BUNDLE 0\r
+            a=extmap-allow-mixed\r
+            a=msid-semantic: WMS\r
+            m=application 9 UDP/DTLS/SCTP webrtc-datachannel\r
+            c=IN IP4 0.0.0.0\r
+            a=ice-ufrag:Vx3B\r
+            a=ice-pwd:8xNd0Z4kVlR1WpYl7x2vQe3K\r
+            a=ice-options:trickle\r
+            a=fingerprint:sha-256 6B:8B:5D:EA:59:04:20:23:29:C8:87:1C:CC:87:32:BE:DD:8C:66:A5:8E:50:55:EA:8C:D3:B6:5C:09:5E:D6:BC\r
+            a=setup:actpass\r
+            a=mid:0\r
+            a=sctp-port:5000\r
+            a=max-message-size:262144\r
+            """;
+
+    static final String ICE_CANDIDATE =
+            "candidate:842163049 1 udp 1677729535 203.0.113.24 54321 typ srflx raddr 192.168.1.23 rport 54321 "
+                    + "generation 0 ufrag Vx3B network-id 1 network-cost 10";
+
+    static final String OFFER_JSON = "{\"type\":\"OFFER\",\"payload\":{\"type\":\"offer\",\"sdp\":"
+            + quote(OFFER_SDP) + "}}";
+
+    static final String ICE_CANDIDATE_JSON = "{\"type\":\"ICE_CANDIDATE\",\"payload\":{\"candidate\":"
+            + quote(ICE_CANDIDATE) + ",\"sdpMid\":\"0\",\"sdpMLineIndex\":0}}";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtConfig config = new JwtConfig();
+        ReflectionTestUtils.setField(config, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(config, "expiration", JWT_EXPIRATION_MS);
+        return new JwtUtil(config);
+    }
+
+    /**
+     * Session service backed by an in-memory repository; transfer ingestion is not wired
+     */
+    static SessionServiceImpl sessionService(JwtUtil jwtUtil) {
+        return new SessionServiceImpl(inMemorySessionRepository(), unsupported(UserRepository.class),
+                new CodeGenerator(), jwtUtil, new SessionStatusBroadcaster(), null);
+    }
+
+    /**
+     * Repository stand-in covering the calls made while creating and joining sessions
+     */
+    static SessionRepository inMemorySessionRepository() {
+        Map<UUID, SessionEntity> byId = new ConcurrentHashMap<>();
+        Map<String, SessionEntity> byRoomCode = new ConcurrentHashMap<>();
+
+        return (SessionRepository) Proxy.newProxyInstance(SessionRepository.class.getClassLoader(),
+                new Class<?>[]{SessionRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        SessionEntity entity = (SessionEntity) args[0];
+                        byId.put(entity.getId(), entity);
+                        byRoomCode.put(entity.getRoomCode(), entity);
+                        yield entity;
+                    }
+                    case "findById" -> Optional.ofNullable(byId.get((UUID) args[0]));
+                    case "findByRoomCode" -> Optional.ofNullable(byRoomCode.get((String) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemorySessionRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static <T> T unsupported(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\r", "\\r").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,153 @@
+package com.nikworkspace.AnyShare.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stored-file download paths, file to a loopback socket drained by another thread
+ * sendfile is what RangeFileWriter hands to Tomcat for whole files and single ranges,
+ * channelTransfer its fallback (multipart, TLS), streamCopy the naive InputStream copy it replaces.
+ * Score is whole files per second; multiply by the file size for bytes per second. Run with
+ * -t N for N concurrent downloads, and with -prof gc to compare heap allocated per download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileDownloadBenchmark {
+
+    @Param({"1", "64"})
+    public int fileMiB;
+
+    private Path file;
+    private ServerSocketChannel server;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("anyshare-download", ".bin");
+        byte[] block = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < fileMiB; i++) {
+                out.write(block);
+            }
+        }
+
+        // Stands in for the receiving client: reads and discards everything
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread.ofPlatform().daemon().start(() -> {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel client = server.accept();
+                    Thread.ofPlatform().daemon().start(() -> drain(client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * One download connection per benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class Connection {
+        SocketChannel socket;
+        OutputStream out;
+
+        @Setup(Level.Trial)
+        public void connect(FileDownloadBenchmark benchmark) throws IOException {
+            socket = SocketChannel.open(benchmark.server.getLocalAddress());
+            out = socket.socket().getOutputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public long sendfile(Connection connection) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return transfer(channel, connection.socket);
+        }
+    }
+
+    @Benchmark
+    public long channelTransfer(Connection connection) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return transfer(channel, Channels.newChannel(connection.out));
+        }
+    }
+
+    @Benchmark
+    public long streamCopy(Connection connection) throws IOException {
+        long copied = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                connection.out.write(buffer, 0, read);
+                copied += read;
+            }
+        }
+        return copied;
+    }
+
+    private static long transfer(FileChannel channel, WritableByteChannel target) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+        return position;
+    }
+
+    private static void drain(SocketChannel client) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        try (client) {
+            while (client.read(buffer.clear()) >= 0) {
+                // discard
+            }
+        } catch (IOException e) {
+            // benchmark tearing down
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.nikworkspace.AnyShare.benchmark;
+
+import com.nikworkspace.AnyShare.dto.JoinSessionRequest;
+import com.nikworkspace.AnyShare.dto.SessionJoinResponse;
+import com.nikworkspace.AnyShare.dto.SignalMessageDTO;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receiver joining a waiting session: lookup, admission, status update and token signing
+ * Each invocation joins a fresh session (created in setup, outside the measurement);
+ * the service is recreated every iteration so the in-memory maps stay bounded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionJoinBenchmark {
+
+    private final JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil();
+    private final SignalMessageDTO.SessionCreateRequest createRequest =
+            new SignalMessageDTO.SessionCreateRequest("DESKTOP", "Mozilla/5.0", true);
+    private final JoinSessionRequest joinRequest = JoinSessionRequest.builder()
+            .deviceType("MOBILE")
+            .userAgent("Mozilla/5.0 (iPhone)")
+            .build();
+
+    private SessionServiceImpl sessionService;
+    private String roomCode;
+
+    @Setup(Level.Iteration)
+    public void newService() {
+        sessionService = BenchmarkFixtures.sessionService(jwtUtil);
+    }
+
+    @Setup(Level.Invocation)
+    public void newSession() {
+        roomCode = sessionService.createSession(createRequest).getRoomCode();
+    }
+
+    @Benchmark
+    public SessionJoinResponse joinSession() {
+        return sessionService.joinSession(roomCode, joinRequest);
+    }
+}
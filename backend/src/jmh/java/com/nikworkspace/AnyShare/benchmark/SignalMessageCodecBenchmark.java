@@ -0,0 +1,67 @@
+package com.nikworkspace.AnyShare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nikworkspace.AnyShare.dto.SignalMessageDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON decode/encode of signaling messages with realistic SDP and ICE payloads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignalMessageCodecBenchmark {
+
+    // Configured like the handler's own mapper
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SignalMessageDTO offer;
+    private SignalMessageDTO iceCandidate;
+
+    @Setup
+    public void setUp() throws Exception {
+        offer = objectMapper.readValue(BenchmarkFixtures.OFFER_JSON, SignalMessageDTO.class);
+        offer.setSenderId("0d0a5c2e-6c1b-4d0e-9d55-6f8a3f6f2b11");
+        offer.setSessionId("5b7c2f7e-1f7a-4c53-8d8e-2a9f0c3b6d42");
+        offer.setTimestamp("2026-01-01T12:00:00.000");
+
+        iceCandidate = objectMapper.readValue(BenchmarkFixtures.ICE_CANDIDATE_JSON, SignalMessageDTO.class);
+        iceCandidate.setSenderId(offer.getSenderId());
+        iceCandidate.setSessionId(offer.getSessionId());
+        iceCandidate.setTimestamp(offer.getTimestamp());
+    }
+
+    @Benchmark
+    public SignalMessageDTO decodeOffer() throws Exception {
+        return objectMapper.readValue(BenchmarkFixtures.OFFER_JSON, SignalMessageDTO.class);
+    }
+
+    @Benchmark
+    public String encodeOffer() throws Exception {
+        return objectMapper.writeValueAsString(offer);
+    }
+
+    @Benchmark
+    public SignalMessageDTO decodeIceCandidate() throws Exception {
+        return objectMapper.readValue(BenchmarkFixtures.ICE_CANDIDATE_JSON, SignalMessageDTO.class);
+    }
+
+    @Benchmark
+    public String encodeIceCandidate() throws Exception {
+        return objectMapper.writeValueAsString(iceCandidate);
+    }
+}
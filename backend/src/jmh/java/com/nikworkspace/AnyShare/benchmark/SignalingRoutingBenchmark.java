@@ -0,0 +1,107 @@
+package com.nikworkspace.AnyShare.benchmark;
+
+import com.nikworkspace.AnyShare.dto.JoinSessionRequest;
+import com.nikworkspace.AnyShare.dto.SessionCreateResponse;
+import com.nikworkspace.AnyShare.dto.SessionJoinResponse;
+import com.nikworkspace.AnyShare.dto.SignalMessageDTO;
+import com.nikworkspace.AnyShare.handler.SignalingWebSocketHandler;
+import com.nikworkspace.AnyShare.interceptor.SignalingHandshakeInterceptor;
+import com.nikworkspace.AnyShare.metrics.SignalingMetrics;
+import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.relay.BinaryRelay;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.trace.SignalingTraceRecorder;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inbound signaling message through the handler: parse, metrics, relay to the other peer
+ * relayFrame covers the binary relay fallback: a 64 KB chunk forwarded without copying.
+ * Both peers are connected over stub WebSocket sessions that discard what they are sent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignalingRoutingBenchmark {
+
+    private static final int RELAY_FRAME_BYTES = 64 * 1024;
+
+    private final TextMessage offer = new TextMessage(BenchmarkFixtures.OFFER_JSON);
+    private final TextMessage iceCandidate = new TextMessage(BenchmarkFixtures.ICE_CANDIDATE_JSON);
+    private final ByteBuffer relayFrame = ByteBuffer.allocate(RELAY_FRAME_BYTES);
+    private final TextMessage relayCredit = new TextMessage(
+            "{\"type\":\"RELAY_CREDIT\",\"payload\":{\"bytes\":" + RELAY_FRAME_BYTES + "}}");
+
+    private SignalingWebSocketHandler handler;
+    private StubWebSocketSession senderWs;
+    private StubWebSocketSession receiverWs;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil();
+        SessionServiceImpl sessionService = BenchmarkFixtures.sessionService(jwtUtil);
+        SignalingMetrics signalingMetrics = new SignalingMetrics(new SimpleMeterRegistry(), sessionService);
+        // No bandwidth caps, so the relay benchmark measures the forwarding path itself
+        handler = new SignalingWebSocketHandler(sessionService, jwtUtil, signalingMetrics,
+                new SignalingTraceRecorder(sessionService, false, "traces", 0, 1),
+                new BinaryRelay(signalingMetrics, true, Integer.MAX_VALUE, RELAY_FRAME_BYTES, 0, 0));
+
+        SessionCreateResponse created = sessionService.createSession(
+                new SignalMessageDTO.SessionCreateRequest("DESKTOP", "Mozilla/5.0", true));
+        SessionJoinResponse joined = sessionService.joinSession(created.getRoomCode(),
+                JoinSessionRequest.builder().deviceType("MOBILE").build());
+        Session session = sessionService.getOrLoadSession(created.getSessionId());
+
+        senderWs = connect(session, created.getPeerId(), "sender");
+        receiverWs = connect(session, joined.getPeerId(), "receiver");
+        handler.handleMessage(senderWs, new TextMessage("{\"type\":\"RELAY_START\"}"));
+    }
+
+    private StubWebSocketSession connect(Session session, String peerId, String id) throws Exception {
+        StubWebSocketSession wsSession = new StubWebSocketSession(id);
+        wsSession.getAttributes().put(SignalingHandshakeInterceptor.ATTR_SESSION, session);
+        wsSession.getAttributes().put(SignalingHandshakeInterceptor.ATTR_PEER_ID, peerId);
+        handler.afterConnectionEstablished(wsSession);
+        return wsSession;
+    }
+
+    @Benchmark
+    public long routeOffer() throws Exception {
+        handler.handleMessage(senderWs, offer);
+        return receiverWs.getSent();
+    }
+
+    @Benchmark
+    public long routeIceCandidate() throws Exception {
+        handler.handleMessage(receiverWs, iceCandidate);
+        return senderWs.getSent();
+    }
+
+    /**
+     * One relayed file chunk plus the receiver's credit for it
+     */
+    @Benchmark
+    public long relayFrame() throws Exception {
+        handler.handleMessage(senderWs, new BinaryMessage(relayFrame.clear()));
+        handler.handleMessage(receiverWs, relayCredit);
+        return receiverWs.getSent();
+    }
+}
@@ -0,0 +1,71 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as --name=value
+ *
+ * @param pairs Sender/receiver pairs to simulate (two WebSockets each)
+ * @param concurrency Pairs allowed in the setup flow at once
+ * @param ramp Time over which pair starts are spread evenly
+ * @param iceCandidates ICE candidates each side sends per pair
+ * @param hold How long all surviving pairs keep their sockets open once setup is done
+ * @param timeout Limit for each HTTP call, WebSocket connect and awaited message
+ * @param target Base URL of a running app, or null to boot one in-process
+ * @param wsHosts Addresses to spread WebSocket connections over (each gets its own ephemeral port range)
+ * @param clients HttpClient instances to shard connections over (one selector thread each)
+ * @param outputDir Where the .hgrm files and summary are written
+ * @param appProperties Extra properties for the in-process app (given as --app.name=value)
+ */
+record LoadTestOptions(int pairs, int concurrency, Duration ramp, int iceCandidates, Duration hold,
+                       Duration timeout, URI target, List<String> wsHosts, int clients, Path outputDir,
+                       Map<String, String> appProperties) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        Map<String, String> values = parseArgs(args, appProperties);
+
+        String target = values.get("target");
+        String hosts = values.get("hosts");
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("pairs", "1000")),
+                Integer.parseInt(values.getOrDefault("concurrency", "500")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("ramp-seconds", "10"))),
+                Integer.parseInt(values.getOrDefault("ice", "4")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("hold-seconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("timeout-seconds", "30"))),
+                target != null ? URI.create(target) : null,
+                hosts != null ? Arrays.asList(hosts.split(",")) : List.of(),
+                Integer.parseInt(values.getOrDefault("clients",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Path.of(values.getOrDefault("out", "target/loadtest")),
+                Map.copyOf(appProperties));
+    }
+
+    /**
+     * Split --name=value arguments; --app.* ones go to appProperties without the prefix
+     */
+    static Map<String, String> parseArgs(String[] args, Map<String, String> appProperties) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String name = arg.substring(2, eq);
+            if (name.startsWith("app.")) {
+                appProperties.put(name.substring("app.".length()), arg.substring(eq + 1));
+            } else {
+                values.put(name, arg.substring(eq + 1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,60 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything measured during a run, shared by all virtual pairs
+ */
+final class LoadTestStats {
+
+    final PhaseStats create = new PhaseStats("create");
+    final PhaseStats info = new PhaseStats("info");
+    final PhaseStats join = new PhaseStats("join");
+    final PhaseStats wsConnect = new PhaseStats("ws-connect");
+    final PhaseStats offer = new PhaseStats("offer");
+    final PhaseStats answer = new PhaseStats("answer");
+    final PhaseStats ice = new PhaseStats("ice");
+    final PhaseStats setup = new PhaseStats("pair-setup");
+
+    final List<PhaseStats> phases = List.of(create, info, join, wsConnect, offer, answer, ice, setup);
+
+    // Signaling message type -> one-way relay latency it is recorded under
+    final Map<String, PhaseStats> relayStats = Map.of("OFFER", offer, "ANSWER", answer, "ICE_CANDIDATE", ice);
+
+    final LongAdder pairsSucceeded = new LongAdder();
+    final LongAdder pairsFailed = new LongAdder();
+
+    private final AtomicInteger openSockets = new AtomicInteger();
+    private final AtomicInteger peakOpenSockets = new AtomicInteger();
+    private final AtomicInteger openAtFirstConnectFailure = new AtomicInteger(-1);
+
+    void socketOpened() {
+        peakOpenSockets.accumulateAndGet(openSockets.incrementAndGet(), Math::max);
+    }
+
+    void socketClosed() {
+        openSockets.decrementAndGet();
+    }
+
+    void connectFailed() {
+        openAtFirstConnectFailure.compareAndSet(-1, openSockets.get());
+    }
+
+    int getOpenSockets() {
+        return openSockets.get();
+    }
+
+    int getPeakOpenSockets() {
+        return peakOpenSockets.get();
+    }
+
+    /**
+     * @return Sockets open when the first WebSocket connect failed, -1 if none failed
+     */
+    int getOpenAtFirstConnectFailure() {
+        return openAtFirstConnectFailure.get();
+    }
+}
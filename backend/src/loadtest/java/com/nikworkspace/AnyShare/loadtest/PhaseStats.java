@@ -0,0 +1,95 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds) and error counts for one phase of the flow
+ */
+final class PhaseStats {
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorReasons = new ConcurrentHashMap<>();
+
+    PhaseStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void recordNanos(long nanos) {
+        histogram.recordValue(Math.max(0, nanos / 1_000));
+    }
+
+    void recordError(String reason) {
+        errors.increment();
+        errorReasons.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    double getErrorRate() {
+        long total = getCount() + getErrors();
+        return total == 0 ? 0 : (double) getErrors() / total;
+    }
+
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    double maxMillis() {
+        return histogram.getMaxValue() / 1_000.0;
+    }
+
+    Map<String, LongAdder> getErrorReasons() {
+        return errorReasons;
+    }
+
+    /**
+     * Print one row per phase (count, errors, percentiles in ms), then the error reasons
+     */
+    static void printTable(PrintStream out, List<PhaseStats> phases) {
+        out.printf("%n%-13s %9s %8s %8s %10s %10s %10s %10s%n",
+                "phase", "count", "errors", "err%", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (PhaseStats phase : phases) {
+            out.printf("%-13s %9d %8d %7.2f%% %10.2f %10.2f %10.2f %10.2f%n",
+                    phase.getName(), phase.getCount(), phase.getErrors(), phase.getErrorRate() * 100,
+                    phase.percentileMillis(50), phase.percentileMillis(99), phase.percentileMillis(99.9),
+                    phase.maxMillis());
+        }
+
+        for (PhaseStats phase : phases) {
+            for (Map.Entry<String, LongAdder> reason : phase.getErrorReasons().entrySet()) {
+                out.printf("  %s error: %s x%d%n", phase.getName(), reason.getKey(), reason.getValue().sum());
+            }
+        }
+    }
+
+    /**
+     * Write the full percentile distribution in milliseconds (HdrHistogram .hgrm format)
+     */
+    void writeDistribution(Path dir) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(name + ".hgrm")))) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+}
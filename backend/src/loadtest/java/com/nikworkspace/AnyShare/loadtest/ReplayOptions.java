@@ -0,0 +1,65 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Trace replay options, all given as --name=value
+ *
+ * @param traces Trace files in recording order (--trace takes files or a directory, comma separated)
+ * @param speed Replay speed multiplier, 1 to 50
+ * @param timeout Limit for each HTTP call, WebSocket connect and awaited message
+ * @param target Base URL of a running app, or null to boot one in-process
+ * @param outputDir Where the .hgrm files and summary are written
+ * @param appProperties Extra properties for the in-process app (given as --app.name=value)
+ */
+record ReplayOptions(List<Path> traces, double speed, Duration timeout, URI target, Path outputDir,
+                     Map<String, String> appProperties) {
+
+    static final double MAX_SPEED = 50;
+
+    static ReplayOptions parse(String[] args) {
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        Map<String, String> values = LoadTestOptions.parseArgs(args, appProperties);
+
+        String trace = values.get("trace");
+        if (trace == null) {
+            throw new IllegalArgumentException("--trace=<file or directory>[,...] is required");
+        }
+        double speed = Double.parseDouble(values.getOrDefault("speed", "1"));
+        if (speed < 1 || speed > MAX_SPEED) {
+            throw new IllegalArgumentException("--speed must be between 1 and " + (int) MAX_SPEED);
+        }
+
+        String target = values.get("target");
+        return new ReplayOptions(
+                Arrays.stream(trace.split(",")).flatMap(ReplayOptions::traceFiles).toList(),
+                speed,
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("timeout-seconds", "30"))),
+                target != null ? URI.create(target) : null,
+                Path.of(values.getOrDefault("out", "target/replay")),
+                Map.copyOf(appProperties));
+    }
+
+    // A directory expands to its .trace files; their names sort in recording order
+    private static Stream<Path> traceFiles(String location) {
+        Path path = Path.of(location);
+        if (!Files.isDirectory(path)) {
+            return Stream.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".trace")).sorted().toList().stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
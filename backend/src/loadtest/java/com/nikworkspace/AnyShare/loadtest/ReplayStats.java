@@ -0,0 +1,21 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import java.util.List;
+
+/**
+ * Per-action latency and errors of a trace replay, plus how far behind schedule events ran
+ */
+final class ReplayStats {
+
+    final PhaseStats create = new PhaseStats("create");
+    final PhaseStats info = new PhaseStats("info");
+    final PhaseStats join = new PhaseStats("join");
+    final PhaseStats close = new PhaseStats("close");
+    final PhaseStats wsConnect = new PhaseStats("ws-connect");
+    final PhaseStats messages = new PhaseStats("message-send");
+    final PhaseStats scheduleLag = new PhaseStats("schedule-lag");
+    // Events whose session has no replay state (created before the trace, or the create failed)
+    final PhaseStats skipped = new PhaseStats("skipped");
+
+    final List<PhaseStats> phases = List.of(create, info, join, close, wsConnect, messages, scheduleLag, skipped);
+}
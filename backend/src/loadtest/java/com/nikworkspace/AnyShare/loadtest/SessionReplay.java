@@ -0,0 +1,280 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nikworkspace.AnyShare.trace.TraceEvent;
+import com.nikworkspace.AnyShare.trace.TraceFormat;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays one recorded session's events, in order, on its own virtual thread
+ * Each event waits for its scheduled time; if an earlier one ran late the rest follow as soon as
+ * possible, so per-session ordering always holds. State the trace doesn't carry (room code, tokens,
+ * peer IDs) comes from the fresh instance's responses.
+ */
+final class SessionReplay implements Runnable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Stop once idle this long with no sockets open; a later event for the session starts a new replay
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ReplayStats stats;
+    private final HttpClient client;
+    private final URI api;
+    private final Duration timeout;
+    private final BlockingQueue<Scheduled> events = new LinkedBlockingQueue<>();
+    private boolean finished;
+
+    private String sessionId;
+    private String roomCode;
+    private String joinToken;
+    private final String[] tokens = new String[3];
+    private final String[] peerIds = new String[3];
+    private final SignalingSocket[] sockets = new SignalingSocket[3];
+
+    record Scheduled(TraceEvent event, long dueNanos) {
+    }
+
+    SessionReplay(ReplayStats stats, HttpClient client, URI api, Duration timeout) {
+        this.stats = stats;
+        this.client = client;
+        this.api = api;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return false if this replay already stopped and the event must go to a new one
+     */
+    synchronized boolean offer(Scheduled scheduled) {
+        if (finished) {
+            return false;
+        }
+        events.add(scheduled);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Scheduled next = events.poll(IDLE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    if (openSockets() == 0 && finish()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                long wait = next.dueNanos() - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                stats.scheduleLag.recordNanos(Math.max(0, System.nanoTime() - next.dueNanos()));
+                apply(next.event());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (SignalingSocket socket : sockets) {
+                if (socket != null) {
+                    socket.abort();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean finish() {
+        finished = events.isEmpty();
+        return finished;
+    }
+
+    private int openSockets() {
+        int open = 0;
+        for (SignalingSocket socket : sockets) {
+            if (socket != null && socket.isOpen()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private void apply(TraceEvent event) throws InterruptedException {
+        if (sessionId == null && event.kind() != TraceEvent.Kind.SESSION_CREATED) {
+            // Created before the trace started, or the create failed
+            stats.skipped.recordError(event.kind().name());
+            return;
+        }
+
+        switch (event.kind()) {
+            case SESSION_CREATED -> create(event.hasFlag(TraceFormat.FLAG_SENDER_JOINED));
+            case SESSION_INFO -> call(stats.info, HttpRequest.newBuilder(api.resolve("/api/v1/sessions/" + roomCode)).GET());
+            case SESSION_JOINED -> join();
+            case SESSION_CLOSED -> close();
+            case WS_CONNECTED -> connect(event.role(), event.hasFlag(TraceFormat.FLAG_JOIN_CAPABILITY));
+            case WS_DISCONNECTED -> disconnect(event.role(), event.value());
+            case MESSAGE -> send(event);
+        }
+    }
+
+    private void create(boolean senderJoined) throws InterruptedException {
+        JsonNode created = call(stats.create, HttpRequest.newBuilder(api.resolve("/api/v1/sessions"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"deviceType\":\"DESKTOP\",\"userAgent\":\"replay\",\"joinAsSender\":" + senderJoined + "}")));
+        if (created == null) {
+            return;
+        }
+        sessionId = created.path("sessionId").asText();
+        roomCode = created.path("roomCode").asText();
+        if (senderJoined) {
+            tokens[TraceFormat.ROLE_SENDER] = created.path("token").asText();
+            peerIds[TraceFormat.ROLE_SENDER] = created.path("peerId").asText();
+        }
+        try {
+            joinToken = MAPPER.readTree(created.path("qrCode").asText()).path("joinToken").asText(null);
+        } catch (Exception e) {
+            joinToken = null;
+        }
+    }
+
+    private void join() throws InterruptedException {
+        JsonNode joined = call(stats.join, HttpRequest.newBuilder(api.resolve("/api/v1/sessions/" + roomCode + "/join"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"deviceType\":\"MOBILE\",\"userAgent\":\"replay\"}")));
+        if (joined != null) {
+            // Same rule as the server: the first peer of a session is the sender
+            int role = tokens[TraceFormat.ROLE_SENDER] == null ? TraceFormat.ROLE_SENDER : TraceFormat.ROLE_RECEIVER;
+            tokens[role] = joined.path("token").asText();
+            peerIds[role] = joined.path("peerId").asText();
+        }
+    }
+
+    private void close() throws InterruptedException {
+        String token = tokens[TraceFormat.ROLE_SENDER] != null ? tokens[TraceFormat.ROLE_SENDER] : tokens[TraceFormat.ROLE_RECEIVER];
+        if (token == null) {
+            stats.close.recordError("no peer token");
+            return;
+        }
+        call(stats.close, HttpRequest.newBuilder(api.resolve("/api/v1/sessions/" + sessionId))
+                .header("Authorization", "Bearer " + token)
+                .DELETE());
+    }
+
+    private void connect(int role, boolean viaJoinCapability) throws InterruptedException {
+        SignalingSocket previous = sockets[role];
+        if (previous != null && previous.isOpen()) {
+            // Reconnect before the old socket's close was seen
+            previous.abort();
+        }
+
+        String query;
+        if (viaJoinCapability) {
+            if (joinToken == null) {
+                stats.wsConnect.recordError("no join token");
+                return;
+            }
+            query = "join=" + URLEncoder.encode(joinToken, StandardCharsets.UTF_8);
+        } else if (tokens[role] != null) {
+            query = "token=" + URLEncoder.encode(tokens[role], StandardCharsets.UTF_8);
+        } else {
+            stats.wsConnect.recordError("no token for role " + role);
+            return;
+        }
+
+        URI uri = URI.create("ws://" + api.getHost() + ":" + api.getPort() + "/signal?" + query);
+        long start = System.nanoTime();
+        try {
+            SignalingSocket socket = SignalingSocket.connect(client, uri, timeout, Map.of());
+            stats.wsConnect.recordNanos(System.nanoTime() - start);
+            sockets[role] = socket;
+
+            if (viaJoinCapability) {
+                JsonNode joined = socket.await("SESSION_JOINED", timeout).path("payload");
+                tokens[role] = joined.path("token").asText();
+                peerIds[role] = joined.path("peerId").asText();
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            stats.wsConnect.recordError(cause.getClass().getSimpleName());
+        }
+    }
+
+    private void disconnect(int role, int closeCode) {
+        SignalingSocket socket = sockets[role];
+        if (socket == null) {
+            return;
+        }
+        // 1006 and other abnormal codes mean the client vanished, so drop without a handshake
+        if (closeCode == 1000 || closeCode == 1001) {
+            socket.close(closeCode);
+        } else {
+            socket.abort();
+        }
+        sockets[role] = null;
+    }
+
+    private void send(TraceEvent event) {
+        SignalingSocket socket = sockets[event.role()];
+        if (socket == null || !socket.isOpen()) {
+            stats.messages.recordError("no open socket");
+            return;
+        }
+        socket.discardReceived();
+
+        String type = TraceFormat.messageTypeName(event.messageType());
+        String target = "";
+        if (event.hasFlag(TraceFormat.FLAG_TARGETED)) {
+            String other = peerIds[event.role() == TraceFormat.ROLE_SENDER ? TraceFormat.ROLE_RECEIVER : TraceFormat.ROLE_SENDER];
+            if (other != null) {
+                target = ",\"targetId\":\"" + other + "\"";
+            }
+        }
+        // Synthetic payload padded to the recorded message size
+        String prefix = "{\"type\":\"" + type + "\"" + target + ",\"payload\":{\"pad\":\"";
+        String suffix = "\"}}";
+        int padding = Math.max(0, event.value() - prefix.length() - suffix.length());
+
+        long start = System.nanoTime();
+        try {
+            socket.send(prefix + "x".repeat(padding) + suffix);
+            stats.messages.recordNanos(System.nanoTime() - start);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            stats.messages.recordError(cause.getClass().getSimpleName());
+        }
+    }
+
+    private JsonNode call(PhaseStats phase, HttpRequest.Builder request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                phase.recordError("HTTP " + response.statusCode());
+                return null;
+            }
+            phase.recordNanos(System.nanoTime() - start);
+            return response.body().isEmpty() ? MAPPER.nullNode() : MAPPER.readTree(response.body());
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            phase.recordError(e.getClass().getSimpleName());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import com.nikworkspace.AnyShare.AnyShareApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end signaling load generator
+ * Simulates sender/receiver pairs on virtual threads against the real REST and /signal flow and
+ * reports per-phase latency percentiles, error rates and socket-count ceilings.
+ * Without --target the app is booted in-process on an in-memory H2 database.
+ *
+ * mvn -Ploadtest test-compile exec:exec@loadtest -Dloadtest.args="--pairs=25000 --ramp-seconds=60"
+ */
+public class SignalingLoadTest {
+
+    private static final String JWT_SECRET = "LoadTestSecretKeyThatIsLongEnoughForHS256SigningAlgorithm0123456789";
+
+    private final LoadTestOptions options;
+    private final URI api;
+    private final LoadTestStats stats = new LoadTestStats();
+
+    SignalingLoadTest(LoadTestOptions options, URI api) {
+        this.options = options;
+        this.api = api;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        ConfigurableApplicationContext app = null;
+        URI api = options.target();
+        if (api == null) {
+            app = startApplication(options.appProperties());
+            api = URI.create("http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port"));
+        }
+
+        try {
+            new SignalingLoadTest(options, api).run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    /**
+     * Boot the app on a random port with an in-memory database and room for many sockets
+     */
+    static ConfigurableApplicationContext startApplication(Map<String, String> appProperties) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("server.tomcat.max-connections", "100000");
+        properties.put("server.tomcat.accept-count", "10000");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("jwt.secret", JWT_SECRET);
+        properties.put("jwt.expiration", "3600000");
+        properties.put("anyshare.retention.initial-delay-ms", "86400000");
+        properties.put("logging.level.com.nikworkspace", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        // --app.* options override the defaults above
+        properties.putAll(appProperties);
+
+        // devtools is on the test classpath; its restarter would re-run main() with the app's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return SpringApplication.run(AnyShareApplication.class, args);
+    }
+
+    void run() throws InterruptedException, IOException {
+        List<String> hosts = options.wsHosts().isEmpty() ? List.of(api.getHost()) : options.wsHosts();
+        HttpClient[] clients = new HttpClient[Math.max(1, options.clients())];
+        ExecutorService users = Executors.newVirtualThreadPerTaskExecutor();
+        // Separate from the users so the clients keep completing I/O (close handshakes) while users wind down
+        ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = HttpClient.newBuilder()
+                    .executor(io)
+                    .connectTimeout(options.timeout())
+                    .build();
+        }
+
+        int pairs = options.pairs();
+        Semaphore setupSlots = new Semaphore(options.concurrency());
+        CountDownLatch setupDone = new CountDownLatch(pairs);
+        CountDownLatch release = new CountDownLatch(1);
+
+        System.out.printf("Load test: %d pairs against %s, ramp %ds, concurrency %d, ws hosts %s%n",
+                pairs, api, options.ramp().toSeconds(), options.concurrency(), hosts);
+        Thread progress = Thread.ofPlatform().daemon().start(() -> reportProgress(setupDone));
+
+        long interval = options.ramp().toNanos() / Math.max(1, pairs);
+        long start = System.nanoTime();
+        for (int i = 0; i < pairs; i++) {
+            long wait = start + i * interval - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            setupSlots.acquire();
+
+            String wsBase = "ws://" + hosts.get(i % hosts.size()) + ":" + api.getPort();
+            users.submit(new VirtualPair(options, stats, clients[i % clients.length], api, wsBase,
+                    setupSlots, setupDone, release));
+        }
+
+        setupDone.await();
+        Duration setupTime = Duration.ofNanos(System.nanoTime() - start);
+        System.out.printf("Setup finished in %ds with %d sockets open, holding for %ds%n",
+                setupTime.toSeconds(), stats.getOpenSockets(), options.hold().toSeconds());
+        Thread.sleep(options.hold().toMillis());
+
+        release.countDown();
+        users.shutdown();
+        users.awaitTermination(1, TimeUnit.MINUTES);
+        io.shutdown();
+        progress.interrupt();
+
+        report(setupTime);
+    }
+
+    private void reportProgress(CountDownLatch setupDone) {
+        try {
+            while (setupDone.getCount() > 0) {
+                Thread.sleep(5_000);
+                System.out.printf("  pairs ok=%d failed=%d, sockets open=%d peak=%d%n",
+                        stats.pairsSucceeded.sum(), stats.pairsFailed.sum(),
+                        stats.getOpenSockets(), stats.getPeakOpenSockets());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(Duration setupTime) throws IOException {
+        Files.createDirectories(options.outputDir());
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(options.outputDir().resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                printSummary(out, setupTime);
+            }
+        }
+        for (PhaseStats phase : stats.phases) {
+            phase.writeDistribution(options.outputDir());
+        }
+        System.out.println("Histograms written to " + options.outputDir().toAbsolutePath());
+    }
+
+    private void printSummary(PrintStream out, Duration setupTime) {
+        long ok = stats.pairsSucceeded.sum();
+        out.printf("%nPairs: %d ok, %d failed, %.1f pairs/s%n", ok, stats.pairsFailed.sum(),
+                ok / Math.max(0.001, setupTime.toMillis() / 1000.0));
+        out.printf("Sockets: peak %d open", stats.getPeakOpenSockets());
+        int ceiling = stats.getOpenAtFirstConnectFailure();
+        out.println(ceiling >= 0 ? ", first connect failure with " + ceiling + " open" : ", no connect failures");
+
+        PhaseStats.printTable(out, stats.phases);
+    }
+}
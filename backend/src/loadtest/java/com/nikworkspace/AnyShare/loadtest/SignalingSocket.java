@@ -0,0 +1,140 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One virtual peer's /signal connection
+ * Relay latency is recorded as messages arrive, from the sentAt stamp the sending peer put in
+ * the payload; the message is then queued for the flow to wait on.
+ */
+final class SignalingSocket implements WebSocket.Listener {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNode CLOSED = JsonNodeFactory.instance.objectNode();
+    private static final JsonNode UNPARSEABLE = JsonNodeFactory.instance.objectNode();
+
+    private final Map<String, PhaseStats> relayStats;
+    private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    private final StringBuilder partial = new StringBuilder();
+    private WebSocket webSocket;
+
+    private SignalingSocket(Map<String, PhaseStats> relayStats) {
+        this.relayStats = relayStats;
+    }
+
+    static SignalingSocket connect(HttpClient client, URI uri, Duration timeout,
+                                   Map<String, PhaseStats> relayStats) throws Exception {
+        SignalingSocket socket = new SignalingSocket(relayStats);
+        socket.webSocket = client.newWebSocketBuilder()
+                .connectTimeout(timeout)
+                .buildAsync(uri, socket)
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return socket;
+    }
+
+    void send(String json) {
+        webSocket.sendText(json, true).join();
+    }
+
+    /**
+     * Wait for the next message of the given type, skipping others
+     *
+     * @return The message
+     */
+    JsonNode await(String type, Duration timeout) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            JsonNode next = received.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                throw new TimeoutException("No " + type + " within " + timeout.toSeconds() + "s");
+            }
+            if (next == CLOSED) {
+                throw new IllegalStateException("Socket closed while waiting for " + type);
+            }
+            if (type.equals(next.path("type").asText())) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Drop messages nobody is waiting for (replayed sockets only send)
+     */
+    void discardReceived() {
+        received.clear();
+    }
+
+    boolean isOpen() {
+        return !webSocket.isOutputClosed() && !webSocket.isInputClosed();
+    }
+
+    void close() {
+        close(WebSocket.NORMAL_CLOSURE);
+    }
+
+    void close(int statusCode) {
+        try {
+            webSocket.sendClose(statusCode, "done").get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            webSocket.abort();
+        }
+    }
+
+    /**
+     * Drop the connection without a close handshake, like a client that vanished
+     */
+    void abort() {
+        webSocket.abort();
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            long receivedAt = System.nanoTime();
+            handle(partial.toString(), receivedAt);
+            partial.setLength(0);
+        }
+        ws.request(1);
+        return null;
+    }
+
+    private void handle(String json, long receivedAt) {
+        try {
+            JsonNode message = MAPPER.readTree(json);
+            String type = message.path("type").asText();
+            JsonNode sentAt = message.path("payload").path("sentAt");
+            PhaseStats stats = relayStats.get(type);
+            if (stats != null && sentAt.canConvertToLong()) {
+                stats.recordNanos(receivedAt - sentAt.asLong());
+            }
+            received.add(message);
+        } catch (Exception e) {
+            received.add(UNPARSEABLE);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+        received.add(CLOSED);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket ws, Throwable error) {
+        received.add(CLOSED);
+    }
+}
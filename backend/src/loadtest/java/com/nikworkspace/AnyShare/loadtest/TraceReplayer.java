@@ -0,0 +1,135 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import com.nikworkspace.AnyShare.trace.TraceEvent;
+import com.nikworkspace.AnyShare.trace.TraceReader;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded signaling traces (anyshare.trace.enabled) against a fresh instance
+ * Events keep their recorded spacing, divided by --speed, and each recorded session is replayed
+ * in order on its own virtual thread. Like the load test, the app is booted in-process unless
+ * --target points at a running one.
+ */
+public final class TraceReplayer {
+
+    // How far ahead of its due time an event is handed to its session, bounding what is queued
+    private static final long LOOKAHEAD_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final ReplayOptions options;
+    private final URI api;
+    private final ReplayStats stats = new ReplayStats();
+    private final Map<Long, SessionReplay> sessions = new ConcurrentHashMap<>();
+
+    private TraceReplayer(ReplayOptions options, URI api) {
+        this.options = options;
+        this.api = api;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReplayOptions options = ReplayOptions.parse(args);
+
+        ConfigurableApplicationContext app = null;
+        URI api = options.target();
+        if (api == null) {
+            app = SignalingLoadTest.startApplication(options.appProperties());
+            api = URI.create("http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port"));
+        }
+
+        try {
+            new TraceReplayer(options, api).run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        ExecutorService replays = Executors.newVirtualThreadPerTaskExecutor();
+        // Separate from the replays so close handshakes still complete while they wind down
+        ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(io)
+                .connectTimeout(options.timeout())
+                .build();
+
+        System.out.printf("Replaying %d trace file(s) against %s at %.1fx%n", options.traces().size(), api, options.speed());
+
+        long events = 0;
+        long firstMicros = Long.MIN_VALUE;
+        long start = System.nanoTime();
+        for (Path trace : options.traces()) {
+            try (TraceReader reader = new TraceReader(trace)) {
+                long baseMicros = reader.getBaseEpochMillis() * 1_000;
+                TraceEvent event;
+                while ((event = reader.next()) != null) {
+                    long micros = baseMicros + event.timeMicros();
+                    if (firstMicros == Long.MIN_VALUE) {
+                        firstMicros = micros;
+                    }
+                    long due = start + (long) ((micros - firstMicros) * 1_000 / options.speed());
+
+                    long wait = due - LOOKAHEAD_NANOS - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    dispatch(replays, client, new SessionReplay.Scheduled(event, due), event.sessionRef());
+                    events++;
+                }
+            }
+        }
+
+        // Sessions still open at the end of the trace stop after their idle timeout
+        replays.shutdown();
+        replays.awaitTermination(5, TimeUnit.MINUTES);
+        io.shutdown();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        report(events, elapsed);
+    }
+
+    private void dispatch(ExecutorService replays, HttpClient client, SessionReplay.Scheduled scheduled, long sessionRef) {
+        while (true) {
+            SessionReplay replay = sessions.computeIfAbsent(sessionRef, ref -> {
+                SessionReplay created = new SessionReplay(stats, client, api, options.timeout());
+                replays.submit(created);
+                return created;
+            });
+            if (replay.offer(scheduled)) {
+                return;
+            }
+            // That replay just went idle and stopped, so start a new one for this session
+            sessions.remove(sessionRef, replay);
+        }
+    }
+
+    private void report(long events, Duration elapsed) throws IOException {
+        Files.createDirectories(options.outputDir());
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(options.outputDir().resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                out.printf("%nReplayed %d events from %d sessions in %ds (%.1fx)%n",
+                        events, sessions.size(), elapsed.toSeconds(), options.speed());
+                PhaseStats.printTable(out, stats.phases);
+            }
+        }
+        for (PhaseStats phase : stats.phases) {
+            phase.writeDistribution(options.outputDir());
+        }
+        System.out.println("Histograms written to " + options.outputDir().toAbsolutePath());
+    }
+}
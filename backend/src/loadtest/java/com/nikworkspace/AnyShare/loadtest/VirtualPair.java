@@ -0,0 +1,215 @@
+package com.nikworkspace.AnyShare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One sender/receiver pair running the real client flow:
+ * create, info, join, both sockets, OFFER/ANSWER, an ICE burst each way, CONNECTED.
+ * Runs on its own virtual thread; sockets stay open until the run releases them.
+ */
+final class VirtualPair implements Runnable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String CREATE_BODY = "{\"deviceType\":\"DESKTOP\",\"userAgent\":\"loadtest\",\"joinAsSender\":true}";
+    private static final String JOIN_BODY = "{\"deviceType\":\"MOBILE\",\"userAgent\":\"loadtest\"}";
+
+    // Data-channel-only offer as produced by Chrome
+    private static final String SDP = "v=0\\r\\no=- 4611731400430051336 2 IN IP4 127.0.0.1\\r\\ns=-\\r\\nt=0 0\\r\\n"
+            + "a=group:BUNDLE 0\\r\\na=extmap-allow-mixed\\r\\na=msid-semantic: WMS\\r\\n"
+            + "m=application 9 UDP/DTLS/SCTP webrtc-datachannel\\r\\nc=IN IP4 0.0.0.0\\r\\n"
+            + "a=ice-ufrag:Vx3B\\r\\na=ice-pwd:8xNd0Z4kVlR1WpYl7x2vQe3K\\r\\na=ice-options:trickle\\r\\n"
+            + "a=fingerprint:sha-256 6B:8B:5D:EA:59:04:20:23:29:C8:87:1C:CC:87:32:BE:DD:8C:66:A5:8E:50:55:EA:8C:D3:B6:5C:09:5E:D6:BC\\r\\n"
+            + "a=setup:actpass\\r\\na=mid:0\\r\\na=sctp-port:5000\\r\\na=max-message-size:262144\\r\\n";
+    private static final String CANDIDATE = "candidate:842163049 1 udp 1677729535 203.0.113.24 54321 typ srflx "
+            + "raddr 192.168.1.23 rport 54321 generation 0 ufrag Vx3B network-id 1 network-cost 10";
+
+    private final LoadTestOptions options;
+    private final LoadTestStats stats;
+    private final HttpClient client;
+    private final URI api;
+    private final String wsBase;
+    private final Semaphore setupSlots;
+    private final CountDownLatch setupDone;
+    private final CountDownLatch release;
+
+    private SignalingSocket sender;
+    private SignalingSocket receiver;
+
+    VirtualPair(LoadTestOptions options, LoadTestStats stats, HttpClient client, URI api, String wsBase,
+                Semaphore setupSlots, CountDownLatch setupDone, CountDownLatch release) {
+        this.options = options;
+        this.stats = stats;
+        this.client = client;
+        this.api = api;
+        this.wsBase = wsBase;
+        this.setupSlots = setupSlots;
+        this.setupDone = setupDone;
+        this.release = release;
+    }
+
+    @Override
+    public void run() {
+        boolean ok = false;
+        try {
+            setUp();
+            ok = true;
+            stats.pairsSucceeded.increment();
+        } catch (PairFailedException e) {
+            stats.pairsFailed.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            setupSlots.release();
+            setupDone.countDown();
+        }
+
+        try {
+            if (ok) {
+                release.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            tearDown(ok);
+        }
+    }
+
+    /**
+     * Receiver leaves first and the sender waits to hear about it, like a finished transfer
+     */
+    private void tearDown(boolean awaitDisconnect) {
+        close(receiver);
+        if (awaitDisconnect && sender != null) {
+            try {
+                sender.await("PEER_DISCONNECTED", options.timeout());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException | IllegalStateException e) {
+                // Closing anyway
+            }
+        }
+        close(sender);
+    }
+
+    private void setUp() throws PairFailedException, InterruptedException {
+        long start = System.nanoTime();
+        Duration timeout = options.timeout();
+
+        JsonNode created = call(stats.create, HttpRequest.newBuilder(api.resolve("/api/v1/sessions"))
+                .POST(HttpRequest.BodyPublishers.ofString(CREATE_BODY)));
+        String roomCode = created.path("roomCode").asText();
+
+        call(stats.info, HttpRequest.newBuilder(api.resolve("/api/v1/sessions/" + roomCode)).GET());
+
+        JsonNode joined = call(stats.join, HttpRequest.newBuilder(api.resolve("/api/v1/sessions/" + roomCode + "/join"))
+                .POST(HttpRequest.BodyPublishers.ofString(JOIN_BODY)));
+
+        sender = connect(created.path("token").asText());
+        receiver = connect(joined.path("token").asText());
+
+        // Wait until the server has registered the receiver's socket, as the real client does
+        await(sender, "PEER_JOINED", stats.wsConnect, timeout);
+
+        sender.send(signal("OFFER", "{\"type\":\"offer\",\"sdp\":\"" + SDP + "\""));
+        await(receiver, "OFFER", stats.offer, timeout);
+
+        receiver.send(signal("ANSWER", "{\"type\":\"answer\",\"sdp\":\"" + SDP + "\""));
+        await(sender, "ANSWER", stats.answer, timeout);
+
+        String candidate = "{\"candidate\":\"" + CANDIDATE + "\",\"sdpMid\":\"0\",\"sdpMLineIndex\":0";
+        for (int i = 0; i < options.iceCandidates(); i++) {
+            sender.send(signal("ICE_CANDIDATE", candidate));
+            receiver.send(signal("ICE_CANDIDATE", candidate));
+        }
+        for (int i = 0; i < options.iceCandidates(); i++) {
+            await(receiver, "ICE_CANDIDATE", stats.ice, timeout);
+            await(sender, "ICE_CANDIDATE", stats.ice, timeout);
+        }
+
+        receiver.send("{\"type\":\"CONNECTED\"}");
+        stats.setup.recordNanos(System.nanoTime() - start);
+    }
+
+    private JsonNode call(PhaseStats phase, HttpRequest.Builder request) throws PairFailedException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request
+                    .timeout(options.timeout())
+                    .header("Content-Type", "application/json")
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw fail(phase, "HTTP " + response.statusCode());
+            }
+            phase.recordNanos(System.nanoTime() - start);
+            return MAPPER.readTree(response.body());
+        } catch (InterruptedException | PairFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw fail(phase, e.getClass().getSimpleName());
+        }
+    }
+
+    private SignalingSocket connect(String token) throws PairFailedException {
+        URI uri = URI.create(wsBase + "/signal?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8));
+        long start = System.nanoTime();
+        try {
+            SignalingSocket socket = SignalingSocket.connect(client, uri, options.timeout(), stats.relayStats);
+            stats.socketOpened();
+            stats.wsConnect.recordNanos(System.nanoTime() - start);
+            return socket;
+        } catch (Exception e) {
+            stats.connectFailed();
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw fail(stats.wsConnect, cause.getClass().getSimpleName());
+        }
+    }
+
+    private void await(SignalingSocket socket, String type, PhaseStats phase, Duration timeout)
+            throws PairFailedException, InterruptedException {
+        try {
+            socket.await(type, timeout);
+        } catch (TimeoutException e) {
+            throw fail(phase, "timeout waiting for " + type);
+        } catch (IllegalStateException e) {
+            throw fail(phase, "closed waiting for " + type);
+        }
+    }
+
+    private static String signal(String type, String payloadFields) {
+        return "{\"type\":\"" + type + "\",\"payload\":" + payloadFields + ",\"sentAt\":" + System.nanoTime() + "}}";
+    }
+
+    private static PairFailedException fail(PhaseStats phase, String reason) {
+        phase.recordError(reason);
+        return new PairFailedException();
+    }
+
+    private void close(SignalingSocket socket) {
+        if (socket != null) {
+            socket.close();
+            stats.socketClosed();
+        }
+    }
+
+    /**
+     * Aborts a pair's flow; the cause is already counted against its phase
+     */
+    private static final class PairFailedException extends Exception {
+        PairFailedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.nikworkspace.AnyShare.actuator;
+
+import com.nikworkspace.AnyShare.jfr.SessionLifecycleEvent;
+import com.nikworkspace.AnyShare.jfr.SignalRoutingEvent;
+import com.nikworkspace.AnyShare.jfr.SignalingConnectionEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Start, dump and stop a Java Flight Recorder recording that includes the app's own events
+ * POST   /actuator/jfr  {"settings": "profile", "maxAgeSeconds": 600}  start (or report the running one)
+ * GET    /actuator/jfr  download the recording so far as a .jfr file (404 if none is running)
+ * DELETE /actuator/jfr  stop and discard the recording
+ * Not exposed by default; add "jfr" to management.endpoints.web.exposure.include where the
+ * management port is not publicly reachable.
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class FlightRecorderEndpoint {
+
+    private static final String RECORDING_NAME = "anyshare";
+    private static final String DEFAULT_SETTINGS = "profile";
+    private static final int DEFAULT_MAX_AGE_SECONDS = 600;
+
+    private Recording recording;
+
+    /**
+     * @param settings Built-in JFR configuration: "default" (low overhead) or "profile"
+     * @param maxAgeSeconds How much history the recording keeps
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable Integer maxAgeSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return describe(recording);
+        }
+
+        String configName = settings != null ? settings : DEFAULT_SETTINGS;
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(configName));
+            started.setName(RECORDING_NAME);
+            started.setToDisk(true);
+            started.setMaxAge(Duration.ofSeconds(maxAgeSeconds != null ? maxAgeSeconds : DEFAULT_MAX_AGE_SECONDS));
+            started.enable(SessionLifecycleEvent.class);
+            started.enable(SignalingConnectionEvent.class);
+            started.enable(SignalRoutingEvent.class);
+            started.start();
+
+            recording = started;
+            log.info("JFR recording started with '{}' settings", configName);
+            return describe(started);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + configName);
+        }
+    }
+
+    /**
+     * Dump what has been recorded so far, the recording keeps running
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource dump() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return null;
+        }
+
+        Path file = Files.createTempFile("anyshare-", ".jfr");
+        recording.dump(file);
+        return new DeleteOnReadResource(file);
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording == null) {
+            return null;
+        }
+
+        Map<String, Object> status = describe(recording);
+        recording.close();
+        recording = null;
+        log.info("JFR recording stopped");
+        return status;
+    }
+
+    private Map<String, Object> describe(Recording running) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("name", running.getName());
+        status.put("state", running.getState().name());
+        status.put("startTime", running.getStartTime());
+        status.put("maxAgeSeconds", running.getMaxAge() != null ? running.getMaxAge().toSeconds() : null);
+        return status;
+    }
+
+    /**
+     * Temp dump file that is removed once the response has been streamed
+     */
+    private static final class DeleteOnReadResource extends FileSystemResource {
+
+        DeleteOnReadResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            try {
+                return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return RECORDING_NAME + ".jfr";
+        }
+    }
+}
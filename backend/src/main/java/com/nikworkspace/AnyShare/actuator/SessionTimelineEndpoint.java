@@ -0,0 +1,70 @@
+package com.nikworkspace.AnyShare.actuator;
+
+import com.nikworkspace.AnyShare.dto.SessionTimelineResponse;
+import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.model.SessionTimeline;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Debug view of a live session's connection-setup timeline
+ * GET /actuator/sessiontimeline/{sessionIdOrRoomCode} (404 if the session isn't in memory)
+ * Deliberately has no listing operation, so it can't be used to discover room codes
+ * Not exposed by default; add "sessiontimeline" to management.endpoints.web.exposure.include
+ * where the management port is not publicly reachable.
+ */
+@Component
+@Endpoint(id = "sessiontimeline")
+@RequiredArgsConstructor
+public class SessionTimelineEndpoint {
+
+    private final SessionServiceImpl sessionService;
+
+    @ReadOperation
+    public SessionTimelineResponse timeline(@Selector String sessionIdOrRoomCode) {
+        // Returning null makes actuator answer 404
+        return sessionService.findActiveSession(sessionIdOrRoomCode)
+                .map(this::toResponse)
+                .orElse(null);
+    }
+
+    private SessionTimelineResponse toResponse(Session session) {
+        SessionTimeline timeline = session.getTimeline();
+
+        Map<String, String> milestones = new LinkedHashMap<>();
+        for (SessionTimeline.Milestone milestone : SessionTimeline.MILESTONES) {
+            long at = timeline.get(milestone);
+            milestones.put(milestone.name(), at == 0 ? null : format(at));
+        }
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        for (SessionTimeline.Phase phase : SessionTimeline.PHASES) {
+            long millis = timeline.duration(phase);
+            phases.put(phase.name(), millis < 0 ? null : millis);
+        }
+
+        return SessionTimelineResponse.builder()
+                .sessionId(session.getSessionId())
+                .roomCode(session.getRoomCode())
+                .status(session.getStatus().name())
+                .milestones(milestones)
+                .phasesMillis(phases)
+                .build();
+    }
+
+    private String format(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
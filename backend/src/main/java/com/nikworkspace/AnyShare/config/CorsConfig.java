@@ -20,8 +20,9 @@ public class CorsConfig {
                                 "http://localhost:3000",
                                 "https://any-share-file-sharing-application.vercel.app"
                         )
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("Location", "Upload-Offset", "Upload-Length", "ETag", "Content-Range", "Accept-Ranges")
                         .allowCredentials(false);
             }
         };
@@ -0,0 +1,120 @@
+package com.nikworkspace.AnyShare.config;
+
+import com.nikworkspace.AnyShare.datasource.ReadWriteRoutingDataSource;
+import com.nikworkspace.AnyShare.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary/replica data sources, enabled by setting anyshare.datasource.replica.url
+ * Read-only transactions go to the replica, everything else to the primary (spring.datasource.*).
+ * Without a replica URL the auto-configured single pool is used unchanged.
+ * Locally, any second Postgres instance (even a non-replicating one) can stand in as the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "anyshare.datasource.replica.url")
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            @Value("${anyshare.datasource.replica.url}") String url,
+            @Value("${anyshare.datasource.replica.username:#{null}}") String username,
+            @Value("${anyshare.datasource.replica.password:#{null}}") String password,
+            @Value("${anyshare.datasource.replica.maximum-pool-size:5}") int maximumPoolSize,
+            @Value("${anyshare.datasource.replica.connection-timeout-ms:2000}") long connectionTimeoutMillis) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        // Fail fast so an unreachable replica doesn't stall requests; reads fall back to primary
+        dataSource.setConnectionTimeout(connectionTimeoutMillis);
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${anyshare.datasource.replica.max-lag-ms:1000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource
+        ));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        log.info("Read/write routing enabled: read-only transactions use the replica pool");
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Database health only reflects the primary; an unavailable replica just means reads fall back
+     * (replaces the auto-configured check, which would probe every pool)
+     */
+    @Bean
+    public HealthIndicator dbHealthContributor(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        return new DataSourceHealthIndicator(primaryDataSource);
+    }
+
+    /**
+     * Replica status for /actuator/health, informational only (always UP)
+     */
+    @Bean
+    public HealthIndicator replicaHealthIndicator(ReplicaLagMonitor replicaLagMonitor) {
+        return () -> Health.up()
+                .withDetail("inRotation", replicaLagMonitor.isReplicaUsable())
+                .withDetail("lagMillis", replicaLagMonitor.getLagMillis())
+                .build();
+    }
+
+    /**
+     * Give connections back after every transaction instead of holding one for the whole
+     * request (open-in-view), so each transaction is routed on its own
+     */
+    @Bean
+    public HibernatePropertiesCustomizer routingHibernatePropertiesCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,29 @@
+package com.nikworkspace.AnyShare.config;
+
+import com.nikworkspace.AnyShare.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    // JDBC batch size for inserts/updates (transfer reports are flushed in batches)
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    /**
+     * Hibernate defaults that don't depend on the environment
+     * Anything set in spring.jpa.properties.* still wins
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, JDBC_BATCH_SIZE);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            // Per-request SQL statement counts (see SqlStatementCountFilter)
+            properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.nikworkspace.AnyShare.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Timers that get latency histograms (per repository method, per connection pool)
+    private static final String[] HISTOGRAM_METRICS = {
+            "spring.data.repository.invocations",
+            "hikaricp.connections.acquire",
+            "hikaricp.connections.usage"
+    };
+
+    /**
+     * Publish histogram buckets for persistence timers, so percentiles can be aggregated across instances
+     */
+    @Bean
+    public MeterFilter persistenceHistogramMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                for (String name : HISTOGRAM_METRICS) {
+                    if (id.getName().equals(name)) {
+                        return DistributionStatisticConfig.builder()
+                                .percentilesHistogram(true)
+                                .build()
+                                .merge(config);
+                    }
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.nikworkspace.AnyShare.config;
 
 import com.nikworkspace.AnyShare.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,6 +35,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // ✅ CRITICAL FIX
                 .authorizeHttpRequests(auth -> auth
+                        // Re-dispatches of already-authorized requests (streaming bodies, error pages)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers(
                                 "/api/v1/auth/**",
                                 "/signal",
@@ -61,8 +64,10 @@ public class SecurityConfig {
                 "https://any-share-file-sharing-application.vercel.app"
         ));
 
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        // Resumable uploads and downloads read these from the response
+        config.setExposedHeaders(List.of("Location", "Upload-Offset", "Upload-Length", "ETag", "Content-Range", "Accept-Ranges"));
         config.setAllowCredentials(true); // ✅ Required
         config.setMaxAge(3600L);
 
@@ -1,7 +1,12 @@
 package com.nikworkspace.AnyShare.config;
 
 import com.nikworkspace.AnyShare.handler.SignalingWebSocketHandler;
+import com.nikworkspace.AnyShare.interceptor.SignalingHandshakeInterceptor;
+import com.nikworkspace.AnyShare.relay.BinaryRelay;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -14,11 +19,23 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final SignalingWebSocketHandler signalingWebSocketHandler;
+    private final SignalingHandshakeInterceptor signalingHandshakeInterceptor;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry
                 .addHandler((WebSocketHandler) signalingWebSocketHandler, "/signal")
+                .addInterceptors(signalingHandshakeInterceptor)  // Reject bad tokens before the upgrade
                 .setAllowedOrigins("*");  // For development; restrict in production
     }
+
+    /**
+     * Let binary frames up to the relay's frame size through (Tomcat's default buffer is 8 KB)
+     * Set as a context parameter rather than on the ServerContainer, which mock web environments lack.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> relayFrameSize(BinaryRelay binaryRelay) {
+        return factory -> factory.addContextCustomizers(context -> context.addParameter(
+                "org.apache.tomcat.websocket.binaryBufferSize", String.valueOf(binaryRelay.getMaxFrameBytes())));
+    }
 }
\ No newline at end of file
@@ -2,12 +2,20 @@ package com.nikworkspace.AnyShare.controller;
 
 import com.nikworkspace.AnyShare.constant.Constant;
 import com.nikworkspace.AnyShare.dto.*;
+import com.nikworkspace.AnyShare.entity.User;
 import com.nikworkspace.AnyShare.service.interfaces.SessionService;
+import com.nikworkspace.AnyShare.trace.SignalingTraceRecorder;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @Slf4j
@@ -17,21 +25,26 @@ public class SessionController {
 
 
     private final SessionService sessionService;
+    private final SignalingTraceRecorder traceRecorder;
 
     /**
      * Create a new file-sharing session (Sender initiates)
      *
      * @param request Device type and user agent info
+     * @param user Logged-in user, if any
      * @return Session details with QR code for sharing
      */
     @PostMapping
     public ResponseEntity<SessionCreateResponse> createSession(
-            @RequestBody SignalMessageDTO.SessionCreateRequest request
+            @RequestBody SignalMessageDTO.SessionCreateRequest request,
+            @AuthenticationPrincipal User user
     ) {
         log.info("Creating session - Device: {}, UA: {}",
                 request.getDeviceType(), request.getUserAgent());
 
-        SessionCreateResponse response = sessionService.createSession(request);
+        // Logged-in users own the session, anonymous sessions have no creator
+        SessionCreateResponse response = sessionService.createSession(request, user != null ? user.getId() : null);
+        traceRecorder.sessionCreated(response.getSessionId(), Boolean.TRUE.equals(request.getJoinAsSender()));
 
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
@@ -39,18 +52,48 @@ public class SessionController {
     /**
      * Get session information (Receiver checks before joining)
      *
+     * Answers If-None-Match with 304 straight from the in-memory registry
+     *
      * @param roomCode The human-readable room code (e.g., SWIFT-7284)
      * @return Session status and joinability info
      */
     @GetMapping("/{roomCode}")
     public ResponseEntity<SessionInfoResponse> getSessionInfo(
-            @PathVariable String roomCode
+            @PathVariable String roomCode,
+            WebRequest webRequest
     ) {
+        traceRecorder.sessionInfo(roomCode);
+        String etag = sessionService.getSessionInfoEtag(roomCode);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            // 304 Not Modified, response already prepared by Spring
+            return null;
+        }
+
         log.info("Getting session info for roomCode={}", roomCode);
 
         SessionInfoResponse response = sessionService.getSessionInfo(roomCode);
 
-        return ResponseEntity.ok(response);
+        // no-cache lets proxies/CDN keep the body and revalidate with If-None-Match
+        return ResponseEntity.ok()
+                .eTag(SessionInfoResponse.etag(response.getSessionId(), response.getVersion()))
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .body(response);
+    }
+
+    /**
+     * Stream session status changes as Server-Sent Events (instead of polling)
+     * Pushes a "status" event on peer join/leave, close and expiry
+     *
+     * @param roomCode The room code to watch
+     * @return Event stream of SessionInfoResponse
+     */
+    @GetMapping(value = "/{roomCode}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSessionInfo(
+            @PathVariable String roomCode
+    ) {
+        log.info("Streaming session info for roomCode={}", roomCode);
+
+        return sessionService.subscribeSessionInfo(roomCode);
     }
 
     /**
@@ -69,6 +112,7 @@ public class SessionController {
                 roomCode, request.getDeviceType());
 
         SessionJoinResponse response = sessionService.joinSession(roomCode, request);
+        traceRecorder.sessionJoined(response.getSessionId());
 
         return ResponseEntity.ok(response);
     }
@@ -93,11 +137,34 @@ public class SessionController {
 
         // Service handles validation and closure
         sessionService.closeSession(sessionId, token);
+        traceRecorder.sessionClosed(sessionId);
 
         // 204 No Content - successful deletion, no body needed
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Report a completed transfer (either peer, after the file went through)
+     * Persisted asynchronously in batches, so this only queues the report
+     *
+     * @param sessionId The session UUID the transfer happened in
+     * @param authHeader Authorization header with the peer's Bearer token
+     * @param request File name, size, type and duration
+     * @return 202 Accepted once queued
+     */
+    @PostMapping("/{sessionId}/transfers")
+    public ResponseEntity<Void> reportTransfer(
+            @PathVariable String sessionId,
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody TransferReportRequest request
+    ) {
+        log.info("Transfer report endpoint called for sessionId={}", sessionId);
+
+        sessionService.reportTransfer(sessionId, extractToken(authHeader), request);
+
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * Helper method to extract JWT token from Authorization header
      *
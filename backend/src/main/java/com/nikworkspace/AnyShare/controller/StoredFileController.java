@@ -0,0 +1,256 @@
+package com.nikworkspace.AnyShare.controller;
+
+import com.nikworkspace.AnyShare.constant.Constant;
+import com.nikworkspace.AnyShare.dto.ChunkManifestRequest;
+import com.nikworkspace.AnyShare.dto.FileTreeResponse;
+import com.nikworkspace.AnyShare.dto.FileUploadRequest;
+import com.nikworkspace.AnyShare.dto.StoredFileResponse;
+import com.nikworkspace.AnyShare.entity.StoredFile;
+import com.nikworkspace.AnyShare.service.FileStorageService;
+import com.nikworkspace.AnyShare.storage.RangeFileWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Store-and-forward file transfer through the server (when the peers can't be online together)
+ * Uploads are resumable: create the upload, PATCH chunks at Upload-Offset, and after an
+ * interruption HEAD the upload to find where to continue. Or PUT fixed-size chunks by index,
+ * in any order and in parallel, to fill a long-latency link.
+ * Per-file endpoints take a peer token of the session or the file's own token (fileToken in
+ * every file response), which stays valid after the session expires.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+@RequestMapping(Constant.V_1_SESSIONS + "/{sessionId}/files")
+public class StoredFileController {
+
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+    public static final String UPLOAD_LENGTH = "Upload-Length";
+    public static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
+    private final FileStorageService fileStorageService;
+    private final RangeFileWriter rangeFileWriter;
+
+    /**
+     * Start an upload (sender only)
+     *
+     * @param sessionId The session UUID
+     * @param authHeader Authorization header with the sender's Bearer token
+     * @param request File name, size and type
+     * @return 201 with the upload's Location
+     */
+    @PostMapping
+    public ResponseEntity<StoredFileResponse> createUpload(
+            @PathVariable String sessionId,
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody FileUploadRequest request
+    ) {
+        log.info("Create upload endpoint called for sessionId={}", sessionId);
+
+        StoredFileResponse response = fileStorageService.createUpload(sessionId, extractToken(authHeader), request);
+
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{fileId}").buildAndExpand(response.getFileId()).toUri())
+                .header(UPLOAD_OFFSET, String.valueOf(response.getUploadOffset()))
+                .body(response);
+    }
+
+    /**
+     * Files stored in the session
+     */
+    @GetMapping
+    public ResponseEntity<List<StoredFileResponse>> listFiles(
+            @PathVariable String sessionId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        return ResponseEntity.ok(fileStorageService.listFiles(sessionId, extractToken(authHeader)));
+    }
+
+    /**
+     * Where an upload stands, to resume it after an interruption
+     *
+     * @return Upload-Offset and Upload-Length headers (plus ETag once complete), no body
+     */
+    @RequestMapping(value = "/{fileId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        StoredFileResponse file = fileStorageService.getFile(sessionId, fileId, extractToken(authHeader));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(file.getUploadOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(file.getFileSize()))
+                .cacheControl(CacheControl.noStore());
+        if (file.isComplete()) {
+            // Lets a receiver plan ranged downloads before the first GET
+            builder.eTag(RangeFileWriter.etag(UUID.fromString(file.getFileId()), file.getFileSize()))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Upload the next chunk (sender only)
+     * Upload-Offset must equal the server's offset; a mismatch is 409 and the client re-reads it with HEAD.
+     *
+     * @return 204 with the new Upload-Offset
+     */
+    @PatchMapping(value = "/{fileId}", consumes = OFFSET_OCTET_STREAM)
+    public ResponseEntity<Void> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request
+    ) throws IOException {
+        long newOffset = fileStorageService.appendChunk(sessionId, fileId, extractToken(authHeader),
+                offset, request.getContentLengthLong(), request.getInputStream());
+
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+    }
+
+    /**
+     * Declare the SHA-256 of every chunk before uploading (sender only)
+     * Chunks this sender already uploaded, in any of its transfers, don't need to be uploaded again.
+     *
+     * @return Upload state; missingChunks lists the chunks still to PUT
+     */
+    @PutMapping("/{fileId}/manifest")
+    public ResponseEntity<StoredFileResponse> declareManifest(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody ChunkManifestRequest request
+    ) {
+        return ResponseEntity.ok(fileStorageService.declareManifest(
+                sessionId, fileId, extractToken(authHeader), request.getChunkHashes()));
+    }
+
+    /**
+     * Upload state of one file, including the chunks still missing
+     */
+    @GetMapping("/{fileId}/chunks")
+    public ResponseEntity<StoredFileResponse> getUploadState(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(fileStorageService.getFile(sessionId, fileId, extractToken(authHeader)));
+    }
+
+    /**
+     * Hash tree of a completed file (either peer)
+     * Receivers hash each chunk as it arrives, compare it with its leaf, and re-fetch only the
+     * chunks that differ with a Range request on their bounds; the leaves are checked against the root.
+     */
+    @GetMapping("/{fileId}/tree")
+    public ResponseEntity<FileTreeResponse> getTree(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        FileTreeResponse tree = fileStorageService.getTree(sessionId, fileId, extractToken(authHeader));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(RangeFileWriter.etag(UUID.fromString(tree.getFileId()), tree.getFileSize()))
+                .body(tree);
+    }
+
+    /**
+     * Upload one chunk at its index (sender only)
+     * Chunks can go in any order over parallel connections; the file completes when the last one lands.
+     *
+     * @param index Chunk index, covering bytes [index * chunkBytes, (index + 1) * chunkBytes)
+     * @return 204 with the Upload-Offset (equal to Upload-Length once complete)
+     */
+    @PutMapping(value = "/{fileId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> uploadChunkAt(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @PathVariable int index,
+            @RequestHeader("Authorization") String authHeader,
+            HttpServletRequest request
+    ) throws IOException {
+        long offset = fileStorageService.putChunk(sessionId, fileId, extractToken(authHeader),
+                index, request.getContentLengthLong(), request.getInputStream());
+
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(offset))
+                .build();
+    }
+
+    /**
+     * Download a completed file (either peer)
+     * Supports Range (including multiple ranges) and If-Range, so receivers can fetch parts
+     * in parallel and resume, and If-None-Match against the file's strong ETag.
+     */
+    @GetMapping("/{fileId}")
+    public void downloadFile(
+            @PathVariable String sessionId,
+            @PathVariable String fileId,
+            @RequestHeader("Authorization") String authHeader,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("Download endpoint called for sessionId={}, fileId={}, range={}",
+                sessionId, fileId, request.getHeader(HttpHeaders.RANGE));
+
+        StoredFile file = fileStorageService.openDownload(sessionId, fileId, extractToken(authHeader));
+
+        rangeFileWriter.write(request, response, fileStorageService.chunkPaths(file), file.getChunkSize(), file.getFileSize(),
+                RangeFileWriter.etag(file.getId(), file.getFileSize()),
+                mediaType(file).toString(),
+                ContentDisposition.attachment().filename(file.getFileName(), StandardCharsets.UTF_8).build().toString());
+    }
+
+    /**
+     * Declared type of the file, or application/octet-stream if missing or malformed
+     */
+    private MediaType mediaType(StoredFile file) {
+        try {
+            return file.getMimeType() != null
+                    ? MediaType.parseMediaType(file.getMimeType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * Helper method to extract JWT token from Authorization header
+     *
+     * @param authHeader Full authorization header (e.g., "Bearer eyJhbGc...")
+     * @return Extracted token string
+     * @throws IllegalArgumentException if header format is invalid
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            log.warn("Invalid Authorization header format");
+            throw new IllegalArgumentException("Authorization header must be in format: Bearer <token>");
+        }
+        return authHeader.substring(7);
+    }
+}
@@ -0,0 +1,91 @@
+package com.nikworkspace.AnyShare.controller;
+
+import com.nikworkspace.AnyShare.dto.HistoryPageResponse;
+import com.nikworkspace.AnyShare.dto.SessionHistoryItem;
+import com.nikworkspace.AnyShare.dto.TransferHistoryItem;
+import com.nikworkspace.AnyShare.dto.UserTransferStatsResponse;
+import com.nikworkspace.AnyShare.entity.User;
+import com.nikworkspace.AnyShare.service.HistoryService;
+import com.nikworkspace.AnyShare.service.UserStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/users/me")
+@Slf4j
+@RequiredArgsConstructor
+public class UserController {
+
+    private final UserStatsService userStatsService;
+    private final HistoryService historyService;
+
+    /**
+     * Get transfer stats for the current user (requires authentication)
+     * GET /api/v1/users/me/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UserTransferStatsResponse> getStats(@AuthenticationPrincipal User user) {
+        log.info("GET /api/v1/users/me/stats - userId: {}", user.getId());
+
+        return ResponseEntity.ok(userStatsService.getStats(user.getId()));
+    }
+
+    /**
+     * Get the current user's transfer history, newest first
+     * GET /api/v1/users/me/transfers?cursor=...&limit=20
+     */
+    @GetMapping("/transfers")
+    public ResponseEntity<HistoryPageResponse<TransferHistoryItem>> getTransferHistory(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/v1/users/me/transfers - userId: {}", user.getId());
+
+        return ResponseEntity.ok(historyService.getTransferHistory(user.getId(), cursor, limit));
+    }
+
+    /**
+     * Get the sessions the current user created, newest first
+     * GET /api/v1/users/me/sessions?cursor=...&limit=20
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<HistoryPageResponse<SessionHistoryItem>> getSessionHistory(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/v1/users/me/sessions - userId: {}", user.getId());
+
+        return ResponseEntity.ok(historyService.getSessionHistory(user.getId(), cursor, limit));
+    }
+
+    /**
+     * Export the current user's full transfer history, streamed as NDJSON or CSV
+     * GET /api/v1/users/me/transfers/export?format=ndjson|csv
+     */
+    @GetMapping("/transfers/export")
+    public ResponseEntity<StreamingResponseBody> exportTransfers(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("GET /api/v1/users/me/transfers/export - userId: {}, format: {}", user.getId(), format);
+
+        HistoryService.ExportFormat exportFormat = HistoryService.ExportFormat.parse(format);
+        UUID userId = user.getId();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transfers." + exportFormat.getExtension() + "\"")
+                .body(out -> historyService.exportTransfers(userId, exportFormat, out));
+    }
+}
@@ -0,0 +1,73 @@
+package com.nikworkspace.AnyShare.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica pool, everything else to the primary
+ * Must sit behind a LazyConnectionDataSourceProxy so the connection is picked after the
+ * transaction's read-only flag is known
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    // Set once a routing data source is in use, so fallbacks are skipped on single-database setups
+    private static volatile boolean enabled;
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        enabled = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCE_PRIMARY.get() == null
+                && lagMonitor.isReplicaUsable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Run work with all reads on the primary (for reads that must see a just-committed write)
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (FORCE_PRIMARY.get() != null) {
+            return work.get();
+        }
+
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * Look up a row on the replica and retry on the primary if it isn't there yet
+     * Covers read-after-write: a row created moments ago (e.g. a join right after create)
+     * may not have replicated. Misses are rare, so the retry costs little.
+     */
+    public static <T> Optional<T> findWithPrimaryFallback(Supplier<Optional<T>> lookup) {
+        Optional<T> result = lookup.get();
+        if (result.isPresent() || !enabled) {
+            return result;
+        }
+        return onPrimary(lookup);
+    }
+}
@@ -0,0 +1,77 @@
+package com.nikworkspace.AnyShare.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replay lag and takes it out of rotation while it is too far behind or down
+ * Read-only work falls back to the primary until the replica catches up
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero when caught up (or when the "replica" is a plain instance, e.g. a local stand-in)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    // Out of rotation until the first successful check
+    private volatile boolean usable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMillis) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${anyshare.datasource.replica.lag-check-ms:1000}")
+    public void checkLag() {
+        boolean wasUsable = usable;
+
+        try {
+            Double lag = replica.queryForObject(LAG_QUERY, Double.class);
+            lagMillis = lag != null ? lag.longValue() : 0;
+            usable = lagMillis <= maxLagMillis;
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica unreachable, routing reads to primary: {}", e.getMessage());
+            }
+            return;
+        }
+
+        if (usable != wasUsable) {
+            if (usable) {
+                log.info("Replica in rotation (lag {} ms)", lagMillis);
+            } else {
+                log.warn("Replica lag {} ms exceeds {} ms, routing reads to primary", lagMillis, maxLagMillis);
+            }
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Last measured replay lag in milliseconds (-1 if the replica could not be reached)
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
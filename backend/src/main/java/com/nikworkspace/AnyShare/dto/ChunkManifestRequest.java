@@ -0,0 +1,21 @@
+package com.nikworkspace.AnyShare.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkManifestRequest {
+
+    // SHA-256 of each chunk in order, lowercase hex
+    @NotNull(message = "Chunk hashes are required")
+    private List<@NotNull @Pattern(regexp = "[0-9a-f]{64}", message = "Chunk hashes must be lowercase hex SHA-256") String> chunkHashes;
+}
@@ -0,0 +1,22 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileTreeResponse {
+    private String fileId;
+    private String algorithm;       // RFC 6962 tree: leaf = H(0x00 || chunkHash), parent = H(0x01 || left || right)
+    private Long fileSize;
+    private Integer chunkBytes;     // Chunk i covers bytes [i * chunkBytes, (i + 1) * chunkBytes)
+    private List<String> chunkHashes;   // SHA-256 of each chunk, to check chunks as they arrive
+    private String root;
+    private List<List<String>> levels;  // Leaves first, root last; an odd last node moves up as is
+}
@@ -0,0 +1,28 @@
+package com.nikworkspace.AnyShare.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileUploadRequest {
+
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+
+    @NotNull(message = "File size is required")
+    @PositiveOrZero(message = "File size must not be negative")
+    private Long fileSize;              // bytes
+
+    @Size(max = 100, message = "Mime type must be at most 100 characters")
+    private String mimeType;
+}
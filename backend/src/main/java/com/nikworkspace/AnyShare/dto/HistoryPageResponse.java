@@ -0,0 +1,17 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryPageResponse<T> {
+    private List<T> items;
+    private String nextCursor;      // Pass back as ?cursor= for the next page (null on last page)
+}
@@ -18,4 +18,8 @@ public class SessionCreateResponse {
     private String expiresAt;   // ISO timestamp (UTC)
     private String createdAt;   // ISO timestamp (UTC)
 
+    // Only present when the creator asked to join as SENDER
+    private String peerId;      // Sender's peer ID
+    private String token;       // JWT for WebSocket authentication
+
 }
@@ -0,0 +1,19 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionHistoryItem {
+    private String sessionId;
+    private String roomCode;
+    private String status;          // WAITING, CONNECTED, EXPIRED, CLOSED
+    private String createdAt;       // ISO timestamp
+    private String expiresAt;
+    private String closedAt;        // null unless closed
+}
@@ -16,4 +16,12 @@ public class SessionInfoResponse {
     private Integer maxPeers;       // Always 2 for MVP
     private Boolean canJoin;        // Computed: is it joinable?
     private String expiresAt;
+    private Long version;           // Bumped on every peer or status change
+
+    /**
+     * Strong ETag for a session info snapshot (session + version)
+     */
+    public static String etag(String sessionId, long version) {
+        return "\"" + sessionId + "-" + version + "\"";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionTimelineResponse {
+    private String sessionId;
+    private String roomCode;
+    private String status;
+    private Map<String, String> milestones;     // Milestone -> ISO timestamp (null if not reached)
+    private Map<String, Long> phasesMillis;     // Phase -> duration (null if incomplete)
+}
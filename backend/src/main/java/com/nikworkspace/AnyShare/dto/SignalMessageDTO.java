@@ -30,5 +30,10 @@ public class SignalMessageDTO {
     public static class SessionCreateRequest {
         private String deviceType;   // e.g., MOBILE, DESKTOP, TABLET
         private String userAgent;    // Browser or app info
+        private Boolean joinAsSender; // Register the creator as SENDER peer in the same call
+
+        public SessionCreateRequest(String deviceType, String userAgent) {
+            this(deviceType, userAgent, null);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFileResponse {
+    private String fileId;
+    private String fileName;
+    private Long fileSize;
+    private String mimeType;
+    private Long uploadedBytes;     // Bytes received so far, in any order
+    private Long uploadOffset;      // Offset a sequential (PATCH) upload resumes from
+    private boolean complete;       // Downloadable once true
+    private Integer chunkBytes;     // Size of each chunk for parallel PUT uploads (the last may be shorter)
+    private List<Integer> missingChunks;    // Chunk indexes still to upload
+    private Long maxChunkBytes;     // Largest chunk a single PATCH may carry
+    private String merkleRoot;      // Root of the chunk hash tree, once complete
+    private String expiresAt;       // Deleted after this (files outlive their session)
+    private String fileToken;       // Bearer token for this file's endpoints until expiresAt (download only for receivers)
+}
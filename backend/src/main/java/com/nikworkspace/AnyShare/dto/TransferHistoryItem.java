@@ -0,0 +1,21 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferHistoryItem {
+    private String transferId;
+    private String sessionId;
+    private String fileName;
+    private Long fileSize;                  // bytes
+    private String mimeType;
+    private Integer transferDurationSeconds;
+    private Long averageSpeed;              // bytes per second
+    private String completedAt;             // ISO timestamp
+}
@@ -0,0 +1,17 @@
+package com.nikworkspace.AnyShare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTransferStatsResponse {
+    private Long transferCount;     // Transfers sent
+    private Long totalBytes;        // Bytes sent
+    private Long averageSpeed;      // Bytes per second (null if no timed transfers)
+    private String lastTransferAt;  // ISO timestamp (null if none yet)
+}
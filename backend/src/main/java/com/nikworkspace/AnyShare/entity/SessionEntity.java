@@ -12,7 +12,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        // Keyset pagination of history: (creator, created_at, id)
+        @Index(name = "idx_sessions_creator_history", columnList = "creator_id, created_at, id"),
+        // Expiry sweep
+        @Index(name = "idx_sessions_expires_at", columnList = "expires_at"),
+        // Retention purge scans by age
+        @Index(name = "idx_sessions_created_at", columnList = "created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -45,4 +52,8 @@ public class SessionEntity {
 
     @Column
     private LocalDateTime closedAt;
+
+    // Single-use QR join capability (jti of the join token), null once used
+    @Column(length = 36)
+    private String joinCapabilityId;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.nikworkspace.AnyShare.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed chunk of stored files, shared by every file that contains it
+ * Reference counted: one reference per position in a stored file's chunk list.
+ */
+@Entity
+@Table(name = "stored_chunks", indexes = {
+        // Garbage collection of unreferenced chunks
+        @Index(name = "idx_stored_chunks_ref_count", columnList = "ref_count")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredChunk {
+
+    // SHA-256 of the content, lowercase hex
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.nikworkspace.AnyShare.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * An owner that has uploaded the bytes of a stored chunk at least once
+ * Only these owners may claim the chunk from a manifest without uploading it, so a hash alone
+ * neither reveals that someone else's content is stored nor grants access to it.
+ */
+@Entity
+@Table(name = "stored_chunk_owners")
+@IdClass(StoredChunkOwner.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredChunkOwner {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    // Registered creator of the uploading session, or the session itself if anonymous
+    @Id
+    private UUID ownerId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String hash;
+        private UUID ownerId;
+    }
+}
@@ -0,0 +1,81 @@
+package com.nikworkspace.AnyShare.entity;
+
+import com.nikworkspace.AnyShare.enums.StoredFileStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * File uploaded to a session for store-and-forward transfer
+ * The bytes live on disk under the storage directory; this row only tracks them.
+ */
+@Entity
+@Table(name = "stored_files", indexes = {
+        @Index(name = "idx_stored_files_session", columnList = "session_id"),
+        // Expiry sweep
+        @Index(name = "idx_stored_files_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private SessionEntity session;
+
+    // Whose earlier uploads this file's manifest may claim: the session's registered creator, or the session
+    @Column
+    private UUID ownerId;
+
+    @Column(nullable = false, length = 255)
+    private String fileName;
+
+    @Column(nullable = false)
+    private Long fileSize;
+
+    @Column(length = 100)
+    private String mimeType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StoredFileStatus status;
+
+    // Upload chunk grid: chunk i covers [i * chunkSize, (i + 1) * chunkSize)
+    @Column
+    private Integer chunkSize;
+
+    // BitSet of received chunks
+    @Column(length = 65536)
+    private byte[] chunkBitmap;
+
+    // SHA-256 of each chunk, 32 bytes per chunk in order: the file's content in the chunk store
+    @Column(length = 1048576)
+    private byte[] chunkHashes;
+
+    // Root of the hash tree over chunkHashes (see MerkleTree), lowercase hex; set on completion
+    @Column(length = 64)
+    private String merkleRoot;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime completedAt;
+
+    // End of the file's own lifetime (anyshare.storage.file-ttl-minutes), after which it is deleted
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
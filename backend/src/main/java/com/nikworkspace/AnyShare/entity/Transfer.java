@@ -11,7 +11,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {
+        // Keyset pagination of history: (user, completed_at, id)
+        @Index(name = "idx_transfers_sender_history", columnList = "sender_id, completed_at, id"),
+        @Index(name = "idx_transfers_receiver_history", columnList = "receiver_id, completed_at, id"),
+        // Session lookups and the retention purge's "session still referenced" check
+        @Index(name = "idx_transfers_session", columnList = "session_id"),
+        // Retention purge scans by age
+        @Index(name = "idx_transfers_completed_at", columnList = "completed_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
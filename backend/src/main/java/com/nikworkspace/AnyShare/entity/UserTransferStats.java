@@ -0,0 +1,46 @@
+package com.nikworkspace.AnyShare.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user transfer rollup, updated incrementally as transfers are written
+ * so stats reads never aggregate over the transfers table
+ */
+@Entity
+@Table(name = "user_transfer_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTransferStats {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Long transferCount;
+
+    @Column(nullable = false)
+    private Long totalBytes;
+
+    // Bytes and seconds of transfers that reported a duration (for average speed)
+    @Column(nullable = false)
+    private Long timedBytes;
+
+    @Column(nullable = false)
+    private Long totalDurationSeconds;
+
+    @Column
+    private Long averageSpeed;  // bytes per second
+
+    @Column
+    private LocalDateTime lastTransferAt;
+}
@@ -0,0 +1,6 @@
+package com.nikworkspace.AnyShare.enums;
+
+public enum StoredFileStatus {
+    UPLOADING,    // Chunks still arriving, data is in the .part file
+    COMPLETE      // All bytes received, ready to download
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
@@ -208,6 +209,79 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
     }
 
+    /**
+     * Handle StoredFileNotFoundException (404 Not Found)
+     * When a stored file doesn't exist in the session (or was already swept)
+     */
+    @ExceptionHandler(StoredFileNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleStoredFileNotFound(StoredFileNotFoundException ex) {
+        log.warn("Stored file not found: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "FILE_NOT_FOUND",
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handle UploadConflictException (409 Conflict)
+     * When an upload chunk doesn't start at the current offset, or the file isn't in the right state
+     */
+    @ExceptionHandler(UploadConflictException.class)
+    public ResponseEntity<ErrorResponse> handleUploadConflict(UploadConflictException ex) {
+        log.warn("Upload conflict: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "UPLOAD_CONFLICT",
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle UploadTooLargeException (413 Payload Too Large)
+     * When a file or a single chunk exceeds the configured limits
+     */
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleUploadTooLarge(UploadTooLargeException ex) {
+        log.warn("Upload too large: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "PAYLOAD_TOO_LARGE",
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handle StorageQuotaExceededException (507 Insufficient Storage)
+     * When a new upload would take the session or the server past its stored-file quota
+     */
+    @ExceptionHandler(StorageQuotaExceededException.class)
+    public ResponseEntity<ErrorResponse> handleStorageQuotaExceeded(StorageQuotaExceededException ex) {
+        log.warn("Storage quota exceeded: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "STORAGE_QUOTA_EXCEEDED",
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.INSUFFICIENT_STORAGE);
+    }
+
+    /**
+     * Handle AsyncRequestNotUsableException (no response)
+     * When the client disconnected during a streaming response, there is no one left to answer
+     */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientDisconnected(AsyncRequestNotUsableException ex) {
+        log.debug("Client disconnected: {}", ex.getMessage());
+    }
+
     /**
      * Catch-all handler for unexpected exceptions (500 Internal Server Error)
      * This should log the full stack trace for debugging
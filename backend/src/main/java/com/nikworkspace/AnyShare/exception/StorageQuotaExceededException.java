@@ -0,0 +1,7 @@
+package com.nikworkspace.AnyShare.exception;
+
+public class StorageQuotaExceededException extends RuntimeException {
+    public StorageQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nikworkspace.AnyShare.exception;
+
+public class StoredFileNotFoundException extends RuntimeException {
+    public StoredFileNotFoundException(String message) {
+        super(message);
+    }
+}
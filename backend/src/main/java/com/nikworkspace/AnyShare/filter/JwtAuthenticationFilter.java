@@ -51,8 +51,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             final Claims claims = jwtUtil.validateToken(jwt);
             final String userEmail = claims.getSubject();
 
+            // Only AUTH tokens name a user; peer, join and file tokens carry a peer or file ID,
+            // so looking them up would only cost failing user queries on every transfer request
+            final boolean userToken = "AUTH".equals(claims.get("type", String.class));
+
             // If token is valid and no authentication is set yet
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (userToken && userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
                 // Load user details from database
                 UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
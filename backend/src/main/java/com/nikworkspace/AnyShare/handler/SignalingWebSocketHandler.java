@@ -2,21 +2,30 @@ package com.nikworkspace.AnyShare.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nikworkspace.AnyShare.dto.SignalMessageDTO;
+import com.nikworkspace.AnyShare.dto.TransferReportRequest;
+import com.nikworkspace.AnyShare.exception.*;
+import com.nikworkspace.AnyShare.interceptor.SignalingHandshakeInterceptor;
+import com.nikworkspace.AnyShare.jfr.SignalRoutingEvent;
+import com.nikworkspace.AnyShare.jfr.SignalingConnectionEvent;
+import com.nikworkspace.AnyShare.metrics.SignalingMetrics;
 import com.nikworkspace.AnyShare.model.Peer;
 import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.model.SessionTimeline;
+import com.nikworkspace.AnyShare.relay.BinaryRelay;
 import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.trace.SignalingTraceRecorder;
 import com.nikworkspace.AnyShare.util.JwtUtil;
-import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.io.IOException;
-import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -24,61 +33,57 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class SignalingWebSocketHandler extends TextWebSocketHandler {
+public class SignalingWebSocketHandler extends AbstractWebSocketHandler {
 
     private final SessionServiceImpl sessionService;
     private final JwtUtil jwtUtil;
+    private final SignalingMetrics signalingMetrics;
+    private final SignalingTraceRecorder traceRecorder;
+    private final BinaryRelay binaryRelay;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Map WebSocket session ID to peer info
     private final Map<String, PeerSessionInfo> webSocketToPeer = new ConcurrentHashMap<>();
 
+    @PostConstruct
+    void registerMetrics() {
+        signalingMetrics.bindPeerConnections(webSocketToPeer);
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession wsSession) throws Exception {
         log.info("WebSocket connection established: {}", wsSession.getId());
 
         try {
-            // Extract token from query params
-            String token = extractToken(wsSession);
-
-            if (token == null) {
-                log.warn("No token provided in WebSocket connection");
-                wsSession.close(CloseStatus.POLICY_VIOLATION.withReason("Missing token"));
+            // Token and session were already resolved by SignalingHandshakeInterceptor
+            Map<String, Object> attributes = wsSession.getAttributes();
+            Session session = (Session) attributes.get(SignalingHandshakeInterceptor.ATTR_SESSION);
+            String sessionId = session.getSessionId();
+
+            // Receivers scanning the QR code present the join capability instead of a token
+            String capabilityId = (String) attributes.get(SignalingHandshakeInterceptor.ATTR_JOIN_CAPABILITY_ID);
+            if (capabilityId != null) {
+                admitWithJoinCapability(wsSession, session, capabilityId,
+                        (String) attributes.get(SignalingHandshakeInterceptor.ATTR_DEVICE_TYPE));
                 return;
             }
 
-            // Validate token
-            Claims claims = jwtUtil.validateToken(token);
-            String peerId = claims.getSubject();
-            String sessionId = claims.get("sessionId", String.class);
-            String tokenType = claims.get("type", String.class);
-
-            // Verify it's a WebSocket token
-            if (!"WEBSOCKET".equals(tokenType)) {
-                log.warn("Invalid token type for WebSocket: {}", tokenType);
-                wsSession.close(CloseStatus.POLICY_VIOLATION.withReason("Invalid token type"));
-                return;
-            }
+            String peerId = (String) attributes.get(SignalingHandshakeInterceptor.ATTR_PEER_ID);
 
             log.info("Peer {} connecting to session {}", peerId, sessionId);
 
-            // Get session
-            Session session = sessionService.getOrLoadSession(sessionId);
-
-            if (session == null) {
-                log.warn("Session not found: {}", sessionId);
-                wsSession.close(CloseStatus.POLICY_VIOLATION.withReason("Session not found"));
+            // Attach the socket under the session lock; a peer that already has one is reconnecting
+            Peer peer;
+            try {
+                peer = sessionService.attachSocket(session, peerId, wsSession);
+            } catch (SessionFullException e) {
+                // Free its slot too, or the registered peer would linger without a socket
+                sessionService.removePeer(session, peerId, wsSession);
+                log.warn("Peer {} rejected from full session {}", peerId, sessionId);
+                wsSession.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
                 return;
             }
-
-            // CRITICAL: Check if peer already exists (reconnection scenario)
-            Peer existingPeer = session.getPeers().get(peerId);
-            if (existingPeer != null) {
-                log.info("Peer {} is reconnecting to session {}", peerId, sessionId);
-
-                // Update WebSocket session for reconnection
-                existingPeer.setWsSession(wsSession);
-            } else {
+            if (peer == null) {
                 // This shouldn't happen as peer should be added via REST API first
                 log.warn("Peer {} not found in session {}. WebSocket connected before REST join?",
                         peerId, sessionId);
@@ -87,10 +92,9 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
             // Store mapping
             webSocketToPeer.put(wsSession.getId(), new PeerSessionInfo(peerId, sessionId));
 
-            // Get the peer from session
-            Peer peer = session.getPeers().get(peerId);
             if (peer != null) {
-                peer.setWsSession(wsSession);
+                markWsConnected(session, peer);
+                traceRecorder.connected(sessionId, peer.getRole(), false);
 
                 // Notify other peers that this peer joined
                 broadcastPeerJoined(session, peer);
@@ -106,12 +110,16 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     protected void handleTextMessage(WebSocketSession wsSession, TextMessage message) throws Exception {
+        long receivedAt = System.nanoTime();
+        SignalRoutingEvent routingEvent = new SignalRoutingEvent();
+        routingEvent.begin();
         String payload = message.getPayload();
         log.debug("Received message from {}: {}", wsSession.getId(), payload);
 
         try {
             // Parse message
             SignalMessageDTO signalMessage = objectMapper.readValue(payload, SignalMessageDTO.class);
+            signalingMetrics.recordInbound(signalMessage.getType(), payload.length());
 
             // Get peer info
             PeerSessionInfo peerInfo = webSocketToPeer.get(wsSession.getId());
@@ -127,11 +135,38 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
                 return;
             }
 
+            if (traceRecorder.isEnabled()) {
+                Peer sender = session.getPeers().get(peerInfo.peerId);
+                traceRecorder.message(peerInfo.sessionId, sender != null ? sender.getRole() : null,
+                        signalMessage.getType(), payload.length(), signalMessage.getTargetId() != null);
+            }
+
             // Set sender ID
             signalMessage.setSenderId(peerInfo.peerId);
             signalMessage.setSessionId(peerInfo.sessionId);
             signalMessage.setTimestamp(LocalDateTime.now().toString());
 
+            // Record completed transfers, the message is still relayed to the other peer
+            if ("TRANSFER_COMPLETE".equals(signalMessage.getType())) {
+                recordTransfer(session, signalMessage);
+            }
+
+            // Client reports its peer connection is up: only timed, not relayed
+            if ("CONNECTED".equals(signalMessage.getType())) {
+                markConnected(session);
+                return;
+            }
+            // Relay control is handled here, not relayed
+            if ("RELAY_START".equals(signalMessage.getType())) {
+                startRelay(wsSession, session, peerInfo.peerId);
+                return;
+            }
+            if ("RELAY_CREDIT".equals(signalMessage.getType())) {
+                grantRelayCredit(session, peerInfo.peerId, signalMessage);
+                return;
+            }
+            markSignalingMilestone(session, signalMessage.getType());
+
             // Route message
             if (signalMessage.getTargetId() != null) {
                 // Send to specific peer
@@ -141,11 +176,56 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
                 broadcastToOthers(session, peerInfo.peerId, signalMessage);
             }
 
+            signalingMetrics.recordRouting(receivedAt);
+
+            routingEvent.end();
+            if (routingEvent.shouldCommit()) {
+                routingEvent.type = signalMessage.getType();
+                routingEvent.sessionId = peerInfo.sessionId;
+                routingEvent.payloadSize = payload.length();
+                routingEvent.commit();
+            }
+
         } catch (Exception e) {
             log.error("Error handling message: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Relay a frame of file data to the other peer (fallback when WebRTC can't connect)
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession wsSession, BinaryMessage message) throws Exception {
+        PeerSessionInfo peerInfo = webSocketToPeer.get(wsSession.getId());
+        if (peerInfo == null) {
+            log.warn("Received binary message from unknown WebSocket session: {}", wsSession.getId());
+            return;
+        }
+        if (!binaryRelay.isEnabled()) {
+            wsSession.close(CloseStatus.NOT_ACCEPTABLE.withReason("Relay is disabled"));
+            return;
+        }
+
+        try {
+            Session session = sessionService.getOrLoadSession(peerInfo.sessionId);
+            Peer target = otherConnectedPeer(session, peerInfo.peerId);
+            if (target == null) {
+                sendRelayUnavailable(wsSession, session, "Peer not connected");
+                return;
+            }
+
+            if (binaryRelay.forward(peerInfo.sessionId, peerInfo.peerId, target.getWsSession(), message)
+                    == BinaryRelay.Outcome.NO_CREDIT) {
+                log.warn("Peer {} exceeded its relay credit in session {}", peerInfo.peerId, peerInfo.sessionId);
+                wsSession.close(CloseStatus.POLICY_VIOLATION.withReason("Relay credit exceeded"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Target closed mid-write; its own close cleans up
+            signalingMetrics.recordSendFailure();
+            log.warn("Could not relay frame from peer {}: {}", peerInfo.peerId, e.getMessage());
+        }
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession wsSession, CloseStatus status) throws Exception {
         log.info("WebSocket connection closed: {} - Status: {}", wsSession.getId(), status);
@@ -157,23 +237,33 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
             log.warn("Closed connection for unknown WebSocket session: {}", wsSession.getId());
             return;
         }
+        SignalingConnectionEvent.emit(SignalingConnectionEvent.DISCONNECTED, peerInfo.sessionId, peerInfo.peerId,
+                status.getCode());
 
         try {
             // Get session
             Session session = sessionService.getOrLoadSession(peerInfo.sessionId);
 
             if (session != null) {
-                // CRITICAL: Remove peer from session on disconnect
-                Peer removedPeer = session.getPeers().remove(peerInfo.peerId);
+                // Role is only known until the peer is removed
+                if (traceRecorder.isEnabled()) {
+                    Peer leaving = session.getPeers().get(peerInfo.peerId);
+                    traceRecorder.disconnected(peerInfo.sessionId, leaving != null ? leaving.getRole() : null,
+                            status.getCode());
+                }
+
+                // CRITICAL: Remove peer from session on disconnect (unless it already reconnected)
+                Peer removedPeer = sessionService.removePeer(session, peerInfo.peerId, wsSession);
 
                 if (removedPeer != null) {
+                    binaryRelay.peerLeft(peerInfo.sessionId, peerInfo.peerId);
                     log.info("Peer {} removed from session {} after disconnect",
                             peerInfo.peerId, peerInfo.sessionId);
 
                     // Notify other peers about disconnection
                     notifyPeerDisconnected(session, peerInfo.peerId);
                 } else {
-                    log.warn("Peer {} not found in session {} during disconnect",
+                    log.warn("Peer {} not found in session {} during disconnect (left or reconnected)",
                             peerInfo.peerId, peerInfo.sessionId);
                 }
             }
@@ -195,32 +285,162 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
     }
 
     /**
-     * Extract token from WebSocket URL query parameters
+     * Admit a receiver using the QR join capability: the peer is created
+     * server-side on this connection, skipping the REST info/join calls
      */
-    private String extractToken(WebSocketSession wsSession) {
+    private void admitWithJoinCapability(WebSocketSession wsSession, Session session,
+                                         String capabilityId, String deviceType) throws IOException {
+        String sessionId = session.getSessionId();
+        Peer peer;
         try {
-            URI uri = wsSession.getUri();
-            if (uri == null) {
-                return null;
-            }
+            peer = sessionService.admitWithJoinCapability(sessionId, capabilityId, deviceType, null);
+        } catch (SessionFullException | SessionExpiredException | UnauthorizedException
+                 | InvalidSessionStateException | SessionNotFoundException e) {
+            log.warn("Join capability rejected for session {}: {}", sessionId, e.getMessage());
+            wsSession.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+            return;
+        }
 
-            String query = uri.getQuery();
-            if (query == null || query.isEmpty()) {
-                return null;
-            }
+        try {
+            sessionService.attachSocket(session, peer.getPeerId(), wsSession);
+        } catch (SessionFullException e) {
+            // A token peer connected between admission and attach
+            sessionService.removePeer(session, peer.getPeerId(), null);
+            log.warn("Join capability peer {} rejected from full session {}", peer.getPeerId(), sessionId);
+            wsSession.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+            return;
+        }
+        webSocketToPeer.put(wsSession.getId(), new PeerSessionInfo(peer.getPeerId(), sessionId));
+        markWsConnected(session, peer);
+        traceRecorder.connected(sessionId, peer.getRole(), true);
+
+        // Hand the new peer its identity and a regular token for reconnects
+        String token = jwtUtil.generateToken(peer.getPeerId(), sessionId, peer.getRole());
+        sendMessage(wsSession, SignalMessageDTO.builder()
+                .type("SESSION_JOINED")
+                .sessionId(sessionId)
+                .targetId(peer.getPeerId())
+                .payload(Map.of("peerId", peer.getPeerId(), "role", peer.getRole(), "token", token))
+                .timestamp(LocalDateTime.now().toString())
+                .build());
 
-            // Parse query string for token parameter
-            for (String param : query.split("&")) {
-                String[] pair = param.split("=");
-                if (pair.length == 2 && "token".equals(pair[0])) {
-                    return pair[1];
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error extracting token: {}", e.getMessage());
+        broadcastPeerJoined(session, peer);
+
+        log.info("Peer {} admitted to session {} via join capability", peer.getPeerId(), sessionId);
+    }
+
+    private void markWsConnected(Session session, Peer peer) {
+        SignalingConnectionEvent.emit(SignalingConnectionEvent.CONNECTED, session.getSessionId(), peer.getPeerId(), 0);
+        session.getTimeline().markFirst("RECEIVER".equals(peer.getRole())
+                ? SessionTimeline.Milestone.RECEIVER_WS_CONNECTED
+                : SessionTimeline.Milestone.SENDER_WS_CONNECTED);
+    }
+
+    private void markSignalingMilestone(Session session, String type) {
+        if (type == null) {
+            return;
+        }
+        switch (type) {
+            case "OFFER" -> session.getTimeline().markFirst(SessionTimeline.Milestone.FIRST_OFFER);
+            case "ANSWER" -> session.getTimeline().markFirst(SessionTimeline.Milestone.FIRST_ANSWER);
+            case "ICE_CANDIDATE" -> session.getTimeline().markLatest(SessionTimeline.Milestone.LAST_ICE_CANDIDATE);
+            default -> { }
         }
+    }
 
-        return null;
+    /**
+     * Record the connected milestone once per session (both peers may report it)
+     */
+    private void markConnected(Session session) {
+        SessionTimeline timeline = session.getTimeline();
+        if (timeline.markFirst(SessionTimeline.Milestone.CONNECTED)) {
+            signalingMetrics.recordSetup(timeline);
+            log.info("Session {} connected {} ms after creation", session.getSessionId(),
+                    timeline.duration(SessionTimeline.Phase.CREATE_TO_CONNECTED));
+        }
+    }
+
+    /**
+     * Opt a peer into the relay and tell it its send window
+     */
+    private void startRelay(WebSocketSession wsSession, Session session, String peerId) {
+        if (!binaryRelay.isEnabled()) {
+            sendRelayUnavailable(wsSession, session, "Relay is disabled");
+            return;
+        }
+
+        binaryRelay.start(session.getSessionId(), peerId);
+        sendMessage(wsSession, SignalMessageDTO.builder()
+                .type("RELAY_READY")
+                .sessionId(session.getSessionId())
+                .targetId(peerId)
+                .payload(Map.of("windowBytes", binaryRelay.getWindowBytes(),
+                        "maxFrameBytes", binaryRelay.getMaxFrameBytes()))
+                .timestamp(LocalDateTime.now().toString())
+                .build());
+    }
+
+    /**
+     * A receiver consumed relayed data: hand the credit back to the peer sending it
+     * (possibly later, when the relay's bandwidth caps are behind)
+     */
+    private void grantRelayCredit(Session session, String receiverId, SignalMessageDTO message) {
+        if (!(message.getPayload() instanceof Map<?, ?> payload) || !(payload.get("bytes") instanceof Number bytes)) {
+            log.warn("Ignoring RELAY_CREDIT without a byte count from peer {}", receiverId);
+            return;
+        }
+
+        Peer sender = otherConnectedPeer(session, receiverId);
+        if (sender == null) {
+            return;
+        }
+        binaryRelay.grant(session.getSessionId(), sender.getPeerId(), bytes.longValue(), granted ->
+                sendMessage(sender.getWsSession(), SignalMessageDTO.builder()
+                        .type("RELAY_CREDIT")
+                        .sessionId(session.getSessionId())
+                        .senderId(receiverId)
+                        .targetId(sender.getPeerId())
+                        .payload(Map.of("bytes", granted))
+                        .timestamp(LocalDateTime.now().toString())
+                        .build()));
+    }
+
+    private void sendRelayUnavailable(WebSocketSession wsSession, Session session, String reason) {
+        sendMessage(wsSession, SignalMessageDTO.builder()
+                .type("RELAY_UNAVAILABLE")
+                .sessionId(session.getSessionId())
+                .payload(reason)
+                .timestamp(LocalDateTime.now().toString())
+                .build());
+    }
+
+    /**
+     * The connected peer on the other end of a two-peer session, or null
+     */
+    private Peer otherConnectedPeer(Session session, String peerId) {
+        return session.getPeers().values().stream()
+                .filter(peer -> !peer.getPeerId().equals(peerId))
+                .filter(Peer::isConnected)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Queue a TRANSFER_COMPLETE report for persistence
+     */
+    private void recordTransfer(Session session, SignalMessageDTO message) {
+        try {
+            TransferReportRequest report = objectMapper.convertValue(message.getPayload(), TransferReportRequest.class);
+
+            if (report == null || report.getFileName() == null || report.getFileSize() == null) {
+                log.warn("Ignoring incomplete TRANSFER_COMPLETE from peer {}", message.getSenderId());
+                return;
+            }
+
+            sessionService.recordTransfer(session, report);
+        } catch (IllegalArgumentException | RateLimitExceededException e) {
+            log.warn("Could not record transfer from peer {}: {}", message.getSenderId(), e.getMessage());
+        }
     }
 
     /**
@@ -291,10 +511,15 @@ public class SignalingWebSocketHandler extends TextWebSocketHandler {
         try {
             if (wsSession != null && wsSession.isOpen()) {
                 String json = objectMapper.writeValueAsString(message);
-                wsSession.sendMessage(new TextMessage(json));
+                // One writer at a time per socket: relayed frames and signaling share it
+                synchronized (wsSession) {
+                    wsSession.sendMessage(new TextMessage(json));
+                }
+                signalingMetrics.recordOutbound(message.getType());
                 log.debug("Sent message to {}: {}", wsSession.getId(), message.getType());
             }
         } catch (IOException e) {
+            signalingMetrics.recordSendFailure();
             log.error("Error sending message: {}", e.getMessage());
         }
     }
@@ -0,0 +1,118 @@
+package com.nikworkspace.AnyShare.interceptor;
+
+import com.nikworkspace.AnyShare.exception.InvalidTokenException;
+import com.nikworkspace.AnyShare.exception.SessionNotFoundException;
+import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates /signal upgrades before the handshake completes.
+ * Bad tokens and unknown sessions are rejected with a plain HTTP status,
+ * so they never get a WebSocket session or a handler callback.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SignalingHandshakeInterceptor implements HandshakeInterceptor {
+
+    // WebSocket session attributes handed to SignalingWebSocketHandler
+    public static final String ATTR_SESSION = "anyshare.session";
+    public static final String ATTR_PEER_ID = "anyshare.peerId";
+    public static final String ATTR_JOIN_CAPABILITY_ID = "anyshare.joinCapabilityId";
+    public static final String ATTR_DEVICE_TYPE = "anyshare.deviceType";
+
+    private final SessionServiceImpl sessionService;
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request,
+                                   @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler,
+                                   @NonNull Map<String, Object> attributes) {
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams();
+
+        // Receivers scanning the QR code present the join capability instead of a token
+        String joinToken = params.getFirst("join");
+        String token = joinToken != null ? joinToken : params.getFirst("token");
+
+        if (token == null) {
+            log.debug("Rejecting WebSocket upgrade without token");
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.validateToken(token);
+        } catch (InvalidTokenException e) {
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+
+        String expectedType = joinToken != null ? "JOIN" : "WEBSOCKET";
+        if (!expectedType.equals(claims.get("type", String.class))) {
+            log.warn("Invalid token type for WebSocket: {}", claims.get("type", String.class));
+            return reject(response, HttpStatus.UNAUTHORIZED);
+        }
+
+        String sessionId = claims.get("sessionId", String.class);
+        Session session;
+        try {
+            session = sessionService.getOrLoadSession(sessionId);
+        } catch (SessionNotFoundException | IllegalArgumentException e) {
+            log.warn("Rejecting WebSocket upgrade for unknown session: {}", sessionId);
+            return reject(response, HttpStatus.NOT_FOUND);
+        }
+
+        if (session.isExpired()) {
+            return reject(response, HttpStatus.NOT_FOUND);
+        }
+
+        if (joinToken != null) {
+            // Cheap pre-check only; the capability is consumed atomically once the socket is up
+            String capabilityId = claims.getId();
+            if (capabilityId == null || !capabilityId.equals(session.getJoinCapabilityId())) {
+                return reject(response, HttpStatus.UNAUTHORIZED);
+            }
+            attributes.put(ATTR_JOIN_CAPABILITY_ID, capabilityId);
+            String deviceType = params.getFirst("deviceType");
+            if (deviceType != null) {
+                attributes.put(ATTR_DEVICE_TYPE, deviceType);
+            }
+        } else {
+            attributes.put(ATTR_PEER_ID, claims.getSubject());
+        }
+
+        attributes.put(ATTR_SESSION, session);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request,
+                               @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler,
+                               Exception exception) {
+        // Nothing to do, the handler takes over from afterConnectionEstablished
+    }
+
+    private boolean reject(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        return false;
+    }
+}
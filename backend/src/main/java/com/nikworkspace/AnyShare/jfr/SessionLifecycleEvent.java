@@ -0,0 +1,50 @@
+package com.nikworkspace.AnyShare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Session created, joined, expired or closed
+ */
+@Name("com.nikworkspace.anyshare.SessionLifecycle")
+@Label("Session Lifecycle")
+@Category({"AnyShare", "Sessions"})
+@Description("A session was created, joined, expired or closed")
+@StackTrace(false)
+public final class SessionLifecycleEvent extends Event {
+
+    public static final String CREATED = "CREATED";
+    public static final String JOINED = "JOINED";
+    public static final String EXPIRED = "EXPIRED";
+    public static final String CLOSED = "CLOSED";
+
+    @Label("Action")
+    String action;
+
+    @Label("Session ID")
+    String sessionId;
+
+    @Label("Peer ID")
+    String peerId;
+
+    @Label("Peers")
+    int peers;
+
+    /**
+     * Emit if the event is enabled in a running recording (no-op otherwise)
+     */
+    public static void emit(String action, String sessionId, String peerId, int peers) {
+        SessionLifecycleEvent event = new SessionLifecycleEvent();
+        if (event.isEnabled()) {
+            event.action = action;
+            event.sessionId = sessionId;
+            event.peerId = peerId;
+            event.peers = peers;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nikworkspace.AnyShare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Handling of one inbound signaling message, from receipt to relay (the event duration)
+ * Usage on the hot path: begin() on receipt, then end() and, only if shouldCommit(),
+ * fill the fields and commit(). When disabled the JIT removes the allocation.
+ */
+@Name("com.nikworkspace.anyshare.SignalRouting")
+@Label("Signal Routing")
+@Category({"AnyShare", "Signaling"})
+@Description("Parsing and relaying one signaling message")
+@StackTrace(false)
+public final class SignalRoutingEvent extends Event {
+
+    @Label("Message Type")
+    public String type;
+
+    @Label("Session ID")
+    public String sessionId;
+
+    @Label("Payload Size")
+    @DataAmount(DataAmount.BYTES)
+    public int payloadSize;
+}
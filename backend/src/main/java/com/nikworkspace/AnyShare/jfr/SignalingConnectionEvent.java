@@ -0,0 +1,48 @@
+package com.nikworkspace.AnyShare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Signaling WebSocket connected or disconnected
+ */
+@Name("com.nikworkspace.anyshare.SignalingConnection")
+@Label("Signaling Connection")
+@Category({"AnyShare", "Signaling"})
+@Description("A peer's signaling WebSocket connected or disconnected")
+@StackTrace(false)
+public final class SignalingConnectionEvent extends Event {
+
+    public static final String CONNECTED = "CONNECTED";
+    public static final String DISCONNECTED = "DISCONNECTED";
+
+    @Label("Action")
+    String action;
+
+    @Label("Session ID")
+    String sessionId;
+
+    @Label("Peer ID")
+    String peerId;
+
+    @Label("Close Code")
+    int closeCode;
+
+    /**
+     * Emit if the event is enabled in a running recording (no-op otherwise)
+     */
+    public static void emit(String action, String sessionId, String peerId, int closeCode) {
+        SignalingConnectionEvent event = new SignalingConnectionEvent();
+        if (event.isEnabled()) {
+            event.action = action;
+            event.sessionId = sessionId;
+            event.peerId = peerId;
+            event.closeCode = closeCode;
+            event.commit();
+        }
+    }
+}
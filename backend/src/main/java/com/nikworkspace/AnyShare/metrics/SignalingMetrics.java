@@ -0,0 +1,167 @@
+package com.nikworkspace.AnyShare.metrics;
+
+import com.nikworkspace.AnyShare.enums.SessionStatus;
+import com.nikworkspace.AnyShare.model.SessionTimeline;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the signaling WebSocket
+ * Every meter is registered up front, so recording on the message path is a map lookup
+ * plus an increment, with no tag or meter creation per message
+ */
+@Component
+public class SignalingMetrics {
+
+    // Message types exchanged over /signal; anything else is counted as OTHER to bound tag cardinality
+    private static final List<String> MESSAGE_TYPES = List.of(
+            "OFFER", "ANSWER", "ICE_CANDIDATE",
+            "PEER_JOINED", "PEER_DISCONNECTED", "SESSION_JOINED",
+            "FILE_METADATA", "FILE_COMPLETE", "TRANSFER_COMPLETE", "CONNECTED", "ERROR",
+            "RELAY_START", "RELAY_READY", "RELAY_CREDIT", "RELAY_UNAVAILABLE"
+    );
+    private static final String OTHER_TYPE = "OTHER";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> inboundByType;
+    private final Map<String, Counter> outboundByType;
+    private final Counter inboundOther;
+    private final Counter outboundOther;
+    private final Counter sendFailures;
+    private final Timer routingTimer;
+    private final DistributionSummary payloadSize;
+    private final Timer[] setupPhaseTimers;
+    private final Counter relayBytes;
+    private final Timer relayPacing;
+
+    public SignalingMetrics(MeterRegistry meterRegistry, SessionServiceImpl sessionService) {
+        this.meterRegistry = meterRegistry;
+
+        this.inboundByType = registerTypeCounters("in");
+        this.outboundByType = registerTypeCounters("out");
+        this.inboundOther = messageCounter(OTHER_TYPE, "in");
+        this.outboundOther = messageCounter(OTHER_TYPE, "out");
+
+        this.sendFailures = Counter.builder("anyshare.signaling.send.failures")
+                .description("Signaling messages that could not be written to a peer")
+                .register(meterRegistry);
+
+        this.routingTimer = Timer.builder("anyshare.signaling.routing")
+                .description("Time from receiving a signaling message to relaying it to its recipients")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.payloadSize = DistributionSummary.builder("anyshare.signaling.payload.size")
+                .description("Inbound signaling message size")
+                .baseUnit("characters")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.setupPhaseTimers = new Timer[SessionTimeline.PHASES.length];
+        for (SessionTimeline.Phase phase : SessionTimeline.PHASES) {
+            setupPhaseTimers[phase.ordinal()] = Timer.builder("anyshare.session.setup")
+                    .description("Connection-setup phase durations, from session creation to a working peer connection")
+                    .tag("phase", phase.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        this.relayBytes = Counter.builder("anyshare.relay.bytes")
+                .description("File data relayed between peers over the signaling WebSocket")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        this.relayPacing = Timer.builder("anyshare.relay.pacing")
+                .description("Time the bandwidth caps held back the credit for relayed frames")
+                .register(meterRegistry);
+
+        Gauge.builder("anyshare.sessions.active", sessionService, SessionServiceImpl::getActiveSessionCount)
+                .description("Sessions held in memory")
+                .register(meterRegistry);
+
+        for (SessionStatus status : SessionStatus.values()) {
+            Gauge.builder("anyshare.sessions", sessionService, service -> service.countActiveSessions(status))
+                    .description("In-memory sessions by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Track the handler's WebSocket-to-peer map as a gauge of open signaling connections
+     */
+    public void bindPeerConnections(Map<?, ?> webSocketToPeer) {
+        Gauge.builder("anyshare.signaling.connections", webSocketToPeer, Map::size)
+                .description("Open signaling WebSocket connections mapped to a peer")
+                .register(meterRegistry);
+    }
+
+    public void recordInbound(String type, int payloadLength) {
+        inboundByType.getOrDefault(type, inboundOther).increment();
+        payloadSize.record(payloadLength);
+    }
+
+    public void recordOutbound(String type) {
+        outboundByType.getOrDefault(type, outboundOther).increment();
+    }
+
+    public void recordSendFailure() {
+        sendFailures.increment();
+    }
+
+    /**
+     * @param startNanos System.nanoTime() when the inbound message arrived
+     */
+    public void recordRouting(long startNanos) {
+        routingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param pacedNanos How long the bandwidth caps hold back the credit for the frame
+     */
+    public void recordRelay(int bytes, long pacedNanos) {
+        relayBytes.increment(bytes);
+        relayPacing.record(pacedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record every completed setup phase of a session (called once, when it reports CONNECTED)
+     */
+    public void recordSetup(SessionTimeline timeline) {
+        for (SessionTimeline.Phase phase : SessionTimeline.PHASES) {
+            long millis = timeline.duration(phase);
+            if (millis >= 0) {
+                setupPhaseTimers[phase.ordinal()].record(millis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private Map<String, Counter> registerTypeCounters(String direction) {
+        // HashMap rather than Map.of: lookups with a null type must not throw
+        Map<String, Counter> counters = new HashMap<>();
+        for (String type : MESSAGE_TYPES) {
+            counters.put(type, messageCounter(type, direction));
+        }
+        return Collections.unmodifiableMap(counters);
+    }
+
+    private Counter messageCounter(String type, String direction) {
+        return Counter.builder("anyshare.signaling.messages")
+                .description("Signaling messages by type and direction")
+                .tag("type", type)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
@@ -18,6 +18,7 @@ public class Peer {
     private String sessionId;           // Which session this peer belongs to
     private String deviceType;          // MOBILE, DESKTOP, TABLET
     private String userAgent;           // Browser info
+    private String role;                // SENDER or RECEIVER
     private LocalDateTime joinedAt;     // When peer joined
 
     // WebSocket session will be added later when we implement WebSocket
@@ -1,13 +1,18 @@
 package com.nikworkspace.AnyShare.model;
 
 import com.nikworkspace.AnyShare.enums.SessionStatus;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.Map;
 
 @Data
@@ -22,12 +27,55 @@ public class Session {
     private LocalDateTime createdAt;       // When session was created
     private LocalDateTime expiresAt;       // When session expires (5 mins from creation)
     private int maxPeers;                  // Maximum peers allowed (2 for MVP)
+    private String joinCapabilityId;       // Single-use QR join capability (null once used)
+    private UUID creatorId;                // Registered user who created it (null if anonymous)
 
     // Store connected peers (peerId -> Peer object)
     // ConcurrentHashMap because multiple threads might access
     @Builder.Default
     private Map<String, com.nikworkspace.AnyShare.model.Peer> peers = new ConcurrentHashMap<>();
 
+    // Connection-setup milestones (created, joined, offer/answer, connected)
+    @Builder.Default
+    private SessionTimeline timeline = new SessionTimeline();
+
+    // Bumped on every peer or status change, backs the session info ETag
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private AtomicLong version = new AtomicLong();
+
+    // Last open status written to the database, guarded by statusWriteLock (not the session monitor)
+    private SessionStatus persistedStatus;
+
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private Object statusWriteLock = new Object();
+
+    /**
+     * Update status, bumping the version if it actually changed
+     */
+    public void setStatus(SessionStatus status) {
+        if (this.status != status) {
+            this.status = status;
+            bumpVersion();
+        }
+    }
+
+    /**
+     * Current version of this session's observable state
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Mark the observable state as changed (peer joined/left)
+     */
+    public long bumpVersion() {
+        return version.incrementAndGet();
+    }
+
     /**
      * Check if session is expired based on current time
      */
@@ -0,0 +1,90 @@
+package com.nikworkspace.AnyShare.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Connection-setup timestamps of one session, from creation to a working WebRTC connection
+ * One epoch-millis slot per milestone (0 = not reached yet), safe to update from any thread
+ */
+public class SessionTimeline {
+
+    public enum Milestone {
+        CREATED,
+        RECEIVER_JOINED,
+        SENDER_WS_CONNECTED,
+        RECEIVER_WS_CONNECTED,
+        FIRST_OFFER,
+        FIRST_ANSWER,
+        LAST_ICE_CANDIDATE,
+        CONNECTED           // Reported by a client once its peer connection is up
+    }
+
+    /**
+     * Aggregated setup phases, each the time between two milestones
+     */
+    public enum Phase {
+        CREATE_TO_JOIN(Milestone.CREATED, Milestone.RECEIVER_JOINED),
+        JOIN_TO_SIGNALING(Milestone.RECEIVER_JOINED, Milestone.RECEIVER_WS_CONNECTED),
+        SIGNALING_TO_OFFER(Milestone.RECEIVER_WS_CONNECTED, Milestone.FIRST_OFFER),
+        OFFER_TO_ANSWER(Milestone.FIRST_OFFER, Milestone.FIRST_ANSWER),
+        ANSWER_TO_CONNECTED(Milestone.FIRST_ANSWER, Milestone.CONNECTED),
+        CREATE_TO_CONNECTED(Milestone.CREATED, Milestone.CONNECTED);
+
+        private final Milestone from;
+        private final Milestone to;
+
+        Phase(Milestone from, Milestone to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public Milestone getFrom() {
+            return from;
+        }
+
+        public Milestone getTo() {
+            return to;
+        }
+    }
+
+    public static final Milestone[] MILESTONES = Milestone.values();
+    public static final Phase[] PHASES = Phase.values();
+
+    private final AtomicLongArray timestamps = new AtomicLongArray(MILESTONES.length);
+
+    /**
+     * Record a milestone now, unless it was already reached
+     *
+     * @return true if this call recorded it
+     */
+    public boolean markFirst(Milestone milestone) {
+        return markFirst(milestone, System.currentTimeMillis());
+    }
+
+    public boolean markFirst(Milestone milestone, long epochMillis) {
+        return timestamps.compareAndSet(milestone.ordinal(), 0, epochMillis);
+    }
+
+    /**
+     * Record a milestone now, overwriting any earlier time (e.g. last ICE candidate)
+     */
+    public void markLatest(Milestone milestone) {
+        timestamps.set(milestone.ordinal(), System.currentTimeMillis());
+    }
+
+    /**
+     * @return Epoch millis of the milestone, or 0 if not reached
+     */
+    public long get(Milestone milestone) {
+        return timestamps.get(milestone.ordinal());
+    }
+
+    /**
+     * @return Duration of the phase in millis, or -1 if either end is missing
+     */
+    public long duration(Phase phase) {
+        long from = get(phase.getFrom());
+        long to = get(phase.getTo());
+        return from == 0 || to == 0 ? -1 : to - from;
+    }
+}
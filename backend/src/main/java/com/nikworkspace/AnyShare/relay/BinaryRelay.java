@@ -0,0 +1,184 @@
+package com.nikworkspace.AnyShare.relay;
+
+import com.nikworkspace.AnyShare.metrics.SignalingMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Server-side relay of file data between the two peers of a session, for when WebRTC can't connect
+ * A peer opts in with RELAY_START and gets a send window of credit. Each binary frame spends credit
+ * and is forwarded as is (the container's buffer, no copy) to the other peer; the receiver hands
+ * credit back with RELAY_CREDIT as it consumes data. A sender can therefore never have more than
+ * one window in flight, so a fast sender can't pile data up on the server. The same window enforces
+ * the per-session and node-wide bandwidth caps: frames go out at once, but credit for them is handed
+ * back only once the caps allow those bytes, so no container thread ever waits on a cap.
+ */
+@Component
+@Slf4j
+public class BinaryRelay {
+
+    /**
+     * What happened to a relayed frame
+     */
+    public enum Outcome {
+        FORWARDED,
+        // Sender didn't send RELAY_START, or sent more than its credit
+        NO_CREDIT
+    }
+
+    private final SignalingMetrics signalingMetrics;
+    private final boolean enabled;
+    private final int windowBytes;
+    private final int maxFrameBytes;
+    private final long sessionBytesPerSecond;
+    private final RelayRateLimiter nodeLimiter;
+
+    // Session ID -> relay state of its peers
+    private final Map<String, RelayChannel> channels = new ConcurrentHashMap<>();
+
+    // Hands back credit held back by the bandwidth caps once it is due
+    private final ScheduledExecutorService pacer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "relay-pacer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BinaryRelay(SignalingMetrics signalingMetrics,
+                       @Value("${anyshare.relay.enabled:true}") boolean enabled,
+                       @Value("${anyshare.relay.window-bytes:1048576}") int windowBytes,
+                       @Value("${anyshare.relay.max-frame-bytes:65536}") int maxFrameBytes,
+                       @Value("${anyshare.relay.session-bytes-per-second:8388608}") long sessionBytesPerSecond,
+                       @Value("${anyshare.relay.node-bytes-per-second:0}") long nodeBytesPerSecond) {
+        this.signalingMetrics = signalingMetrics;
+        this.enabled = enabled;
+        this.windowBytes = windowBytes;
+        this.maxFrameBytes = maxFrameBytes;
+        this.sessionBytesPerSecond = sessionBytesPerSecond;
+        this.nodeLimiter = new RelayRateLimiter(nodeBytesPerSecond, windowBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWindowBytes() {
+        return windowBytes;
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    /**
+     * Start (or restart) relaying from a peer, resetting its credit to a full window
+     */
+    public void start(String sessionId, String peerId) {
+        channels.computeIfAbsent(sessionId, id -> new RelayChannel(new RelayRateLimiter(sessionBytesPerSecond, windowBytes)))
+                .senders.put(peerId, new RelaySender(windowBytes));
+        log.info("Relay started for peer {} in session {}", peerId, sessionId);
+    }
+
+    /**
+     * Spend the sender's credit and write the frame to the target right away
+     * The bandwidth caps only push back when the sender's credit for this frame is returned.
+     * Writes to one socket are serialized on it, like every other send to a signaling socket.
+     */
+    public Outcome forward(String sessionId, String senderId, WebSocketSession target, BinaryMessage message)
+            throws IOException {
+        int bytes = message.getPayloadLength();
+        RelayChannel channel = channels.get(sessionId);
+        RelaySender sender = channel != null ? channel.senders.get(senderId) : null;
+        if (sender == null || sender.credit.addAndGet(-bytes) < 0) {
+            return Outcome.NO_CREDIT;
+        }
+
+        long now = System.nanoTime();
+        long wait = Math.max(channel.limiter.reserve(bytes, now), nodeLimiter.reserve(bytes, now));
+        if (wait > 0) {
+            sender.creditDueAt.accumulateAndGet(now + wait, Math::max);
+        }
+
+        synchronized (target) {
+            target.sendMessage(message);
+        }
+        signalingMetrics.recordRelay(bytes, wait);
+        return Outcome.FORWARDED;
+    }
+
+    /**
+     * Return credit to a sender after its receiver consumed data, capped at one window
+     * If the bandwidth caps haven't caught up with the data sent so far, the credit is returned
+     * later, on the pacer thread.
+     *
+     * @param onGranted Told the credit actually granted (never called with 0), to pass it on to the sender
+     */
+    public void grant(String sessionId, String senderId, long bytes, LongConsumer onGranted) {
+        RelayChannel channel = channels.get(sessionId);
+        RelaySender sender = channel != null ? channel.senders.get(senderId) : null;
+        if (sender == null || bytes <= 0) {
+            return;
+        }
+
+        long delay = sender.creditDueAt.get() - System.nanoTime();
+        if (delay <= 0) {
+            sender.grant(bytes, windowBytes, onGranted);
+        } else {
+            pacer.schedule(() -> sender.grant(bytes, windowBytes, onGranted), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Forget a peer's relay state, and the session's once nobody in it is relaying
+     */
+    public void peerLeft(String sessionId, String peerId) {
+        channels.computeIfPresent(sessionId, (id, channel) -> {
+            channel.senders.remove(peerId);
+            return channel.senders.isEmpty() ? null : channel;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pacer.shutdownNow();
+    }
+
+    private static final class RelayChannel {
+        final RelayRateLimiter limiter;
+        final Map<String, RelaySender> senders = new ConcurrentHashMap<>();
+
+        RelayChannel(RelayRateLimiter limiter) {
+            this.limiter = limiter;
+        }
+    }
+
+    private static final class RelaySender {
+        final AtomicLong credit;
+        // System.nanoTime() before which the caps don't allow credit back
+        final AtomicLong creditDueAt = new AtomicLong(System.nanoTime());
+
+        RelaySender(long windowBytes) {
+            this.credit = new AtomicLong(windowBytes);
+        }
+
+        void grant(long bytes, long windowBytes, LongConsumer onGranted) {
+            long before = credit.getAndUpdate(current -> Math.min(windowBytes, current + bytes));
+            long granted = Math.min(windowBytes, before + bytes) - before;
+            if (granted > 0) {
+                onGranted.accept(granted);
+            }
+        }
+    }
+}
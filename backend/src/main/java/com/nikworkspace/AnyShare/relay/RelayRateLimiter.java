@@ -0,0 +1,72 @@
+package com.nikworkspace.AnyShare.relay;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket over bytes, in the reservation style: a caller takes its bytes
+ * right away and is told how long to wait before sending them, so callers pace themselves
+ * instead of polling. Up to burstBytes can go out with no wait.
+ */
+public final class RelayRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // Longest any reservation is allowed to cost, so huge byte counts can't overflow the clock (~1 year)
+    private static final long MAX_COST_SECONDS = 365L * 24 * 60 * 60;
+
+    private final long bytesPerSecond;
+    private final long burstNanos;
+
+    // Time at which every byte reserved so far has been "paid for" at the configured rate
+    private final AtomicLong paidUntil = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param bytesPerSecond Sustained rate, or 0 for no limit
+     * @param burstBytes Bytes that may go out back to back before pacing starts
+     */
+    public RelayRateLimiter(long bytesPerSecond, long burstBytes) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.burstNanos = bytesPerSecond > 0 ? nanosFor(burstBytes) : 0;
+    }
+
+    public boolean isLimited() {
+        return bytesPerSecond > 0;
+    }
+
+    /**
+     * Reserve bytes
+     *
+     * @return Nanoseconds to wait before sending them (0 if within the burst)
+     */
+    public long reserve(long bytes, long nowNanos) {
+        if (bytesPerSecond <= 0) {
+            return 0;
+        }
+
+        long cost = nanosFor(bytes);
+        while (true) {
+            long current = paidUntil.get();
+            // Idle time refills the bucket, but never beyond the burst
+            long start = current == Long.MIN_VALUE ? nowNanos - burstNanos : Math.max(current, nowNanos - burstNanos);
+            long next = start + cost;
+            if (paidUntil.compareAndSet(current, next)) {
+                return Math.max(0, next - nowNanos);
+            }
+        }
+    }
+
+    /**
+     * Time the bytes take at the configured rate, without bytes * 10^9 overflowing
+     */
+    long nanosFor(long bytes) {
+        long seconds = bytes / bytesPerSecond;
+        if (seconds >= MAX_COST_SECONDS) {
+            return MAX_COST_SECONDS * NANOS_PER_SECOND;
+        }
+        long rest = bytes % bytesPerSecond;
+        long restNanos = rest <= Long.MAX_VALUE / NANOS_PER_SECOND
+                ? rest * NANOS_PER_SECOND / bytesPerSecond
+                // Only with rates above ~9 GB/s; sub-nanosecond precision doesn't matter there
+                : (long) ((double) rest / bytesPerSecond * NANOS_PER_SECOND);
+        return seconds * NANOS_PER_SECOND + restNanos;
+    }
+}
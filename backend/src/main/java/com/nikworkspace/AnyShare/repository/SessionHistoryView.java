@@ -0,0 +1,16 @@
+package com.nikworkspace.AnyShare.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Column projection of a sessions row for history pages (no entity hydration)
+ */
+public interface SessionHistoryView {
+    UUID getId();
+    String getRoomCode();
+    String getStatus();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getExpiresAt();
+    LocalDateTime getClosedAt();
+}
@@ -3,8 +3,10 @@ package com.nikworkspace.AnyShare.repository;
 import com.nikworkspace.AnyShare.entity.SessionEntity;
 import com.nikworkspace.AnyShare.enums.SessionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,5 +21,62 @@ public interface SessionRepository extends JpaRepository<SessionEntity, UUID> {
     @Query("SELECT s FROM SessionEntity s WHERE s.expiresAt < :now AND s.status != 'CLOSED'")
     List<SessionEntity> findExpiredSessions(LocalDateTime now);
 
+    @Modifying
+    @Query("UPDATE SessionEntity s SET s.status = 'EXPIRED' WHERE s.expiresAt < :now AND s.status IN ('WAITING', 'CONNECTED')")
+    int markExpiredSessions(LocalDateTime now);
+
+    /**
+     * Move an open session between WAITING and CONNECTED, never overwriting EXPIRED or CLOSED
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SessionEntity s SET s.status = :status WHERE s.id = :id AND s.status IN ('WAITING', 'CONNECTED')")
+    int updateOpenStatus(UUID id, SessionStatus status);
+
+    /**
+     * Use up the session's QR join capability
+     *
+     * @return 1 for the one caller that consumed it, 0 if it doesn't match or was already used
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SessionEntity s SET s.joinCapabilityId = NULL WHERE s.id = :id AND s.joinCapabilityId = :capabilityId")
+    int consumeJoinCapability(UUID id, String capabilityId);
+
     List<SessionEntity> findByCreatorIdOrderByCreatedAtDesc(UUID creatorId);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of sessions a user created, newest first (served by the (creator_id, created_at, id) index)
+     */
+    @Query(value = """
+            SELECT s.id, s.room_code AS roomCode, s.status, s.created_at AS createdAt,
+                   s.expires_at AS expiresAt, s.closed_at AS closedAt
+            FROM sessions s
+            WHERE s.creator_id = :creatorId AND (s.created_at, s.id) < (:createdAt, :id)
+            ORDER BY s.created_at DESC, s.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<SessionHistoryView> findHistoryPage(UUID creatorId, LocalDateTime createdAt, UUID id, int limit);
+
+    /**
+     * Delete one bounded batch of finished sessions created before the cutoff
+     * Sessions still referenced by transfer history or by a stored file (not swept yet, or kept
+     * longer than the session) are kept, so one of them can't fail the whole batch. Rows locked
+     * by another transaction are skipped rather than waited on.
+     *
+     * @return Number of rows deleted (less than batchSize once caught up)
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM sessions WHERE id IN (
+                SELECT s.id FROM sessions s
+                WHERE s.created_at < :cutoff
+                  AND s.status IN ('EXPIRED', 'CLOSED')
+                  AND NOT EXISTS (SELECT 1 FROM transfers t WHERE t.session_id = s.id)
+                  AND NOT EXISTS (SELECT 1 FROM stored_files f WHERE f.session_id = s.id)
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int deleteFinishedBefore(LocalDateTime cutoff, int batchSize);
+}
@@ -0,0 +1,33 @@
+package com.nikworkspace.AnyShare.repository;
+
+import com.nikworkspace.AnyShare.entity.StoredChunkOwner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Repository
+public interface StoredChunkOwnerRepository extends JpaRepository<StoredChunkOwner, StoredChunkOwner.Key> {
+
+    /**
+     * Record that the owner uploaded the chunk's bytes (no-op if already recorded)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO stored_chunk_owners (hash, owner_id)
+            VALUES (:hash, :ownerId)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    void addOwner(String hash, UUID ownerId);
+
+    boolean existsByHashAndOwnerId(String hash, UUID ownerId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredChunkOwner o WHERE o.hash = :hash")
+    int deleteOwners(String hash);
+}
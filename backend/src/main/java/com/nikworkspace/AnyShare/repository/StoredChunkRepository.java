@@ -0,0 +1,39 @@
+package com.nikworkspace.AnyShare.repository;
+
+import com.nikworkspace.AnyShare.entity.StoredChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface StoredChunkRepository extends JpaRepository<StoredChunk, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredChunk c SET c.refCount = c.refCount + 1 WHERE c.hash = :hash")
+    int incrementRefCount(String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredChunk c SET c.refCount = c.refCount - 1 WHERE c.hash = :hash AND c.refCount > 0")
+    int decrementRefCount(String hash);
+
+    /**
+     * Delete the chunk's row if nothing references it any more
+     *
+     * @return 1 if deleted, 0 if it was referenced again (or already gone)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredChunk c WHERE c.hash = :hash AND c.refCount = 0")
+    int deleteIfUnreferenced(String hash);
+
+    /**
+     * One bounded batch of chunks no stored file references
+     */
+    List<StoredChunk> findTop500ByRefCount(int refCount);
+}
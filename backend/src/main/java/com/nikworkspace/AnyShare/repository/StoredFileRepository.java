@@ -0,0 +1,60 @@
+package com.nikworkspace.AnyShare.repository;
+
+import com.nikworkspace.AnyShare.entity.StoredFile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
+
+    List<StoredFile> findBySessionIdOrderByCreatedAtAsc(UUID sessionId);
+
+    Optional<StoredFile> findByIdAndSessionId(UUID id, UUID sessionId);
+
+    /**
+     * One bounded batch of files whose session has expired, oldest first
+     */
+    List<StoredFile> findTop500ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now);
+
+    /**
+     * Lock the file's row for deletion if it has expired (call in a transaction)
+     * Chunk state saves wait for the lock, so the row read here holds every reference the file took.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StoredFile f WHERE f.id = :id AND f.expiresAt < :now")
+    Optional<StoredFile> lockIfExpired(UUID id, LocalDateTime now);
+
+    long countBySessionIdAndExpiresAtAfter(UUID sessionId, LocalDateTime now);
+
+    /**
+     * Declared bytes of the session's files that haven't expired (uploads in progress count in full)
+     */
+    @Query("SELECT COALESCE(SUM(f.fileSize), 0) FROM StoredFile f WHERE f.session.id = :sessionId AND f.expiresAt > :now")
+    long sumLiveBytesBySessionId(UUID sessionId, LocalDateTime now);
+
+    /**
+     * Declared bytes of all files that haven't expired
+     */
+    @Query("SELECT COALESCE(SUM(f.fileSize), 0) FROM StoredFile f WHERE f.expiresAt > :now")
+    long sumLiveBytes(LocalDateTime now);
+
+    /**
+     * Save an upload's received-chunk bitmap and chunk hashes without touching the rest of the row
+     *
+     * @return 1 if saved, 0 if the file has been deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.chunkBitmap = :bitmap, f.chunkHashes = :hashes WHERE f.id = :id")
+    int updateChunkState(UUID id, byte[] bitmap, byte[] hashes);
+}
@@ -0,0 +1,18 @@
+package com.nikworkspace.AnyShare.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Column projection of a transfers row for history pages (no entity hydration)
+ */
+public interface TransferHistoryView {
+    UUID getId();
+    UUID getSessionId();
+    String getFileName();
+    Long getFileSize();
+    String getMimeType();
+    Integer getTransferDurationSeconds();
+    Long getAverageSpeed();
+    LocalDateTime getCompletedAt();
+}
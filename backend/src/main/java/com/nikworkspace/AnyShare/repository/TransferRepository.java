@@ -1,12 +1,18 @@
 package com.nikworkspace.AnyShare.repository;
 
 import com.nikworkspace.AnyShare.entity.Transfer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, UUID> {
@@ -16,6 +22,66 @@ public interface TransferRepository extends JpaRepository<Transfer, UUID> {
     @Query("SELECT t FROM Transfer t WHERE t.sender.id = :userId OR t.receiver.id = :userId ORDER BY t.completedAt DESC")
     List<Transfer> findByUserIdOrderByCompletedAtDesc(UUID userId);
 
+    /**
+     * Keyset page of a user's transfers (sent or received), newest first
+     * Each branch is a bounded scan of its (user, completed_at, id) index, so page N costs the same as page 1
+     */
+    @Query(value = """
+            SELECT h.id, h.session_id AS sessionId, h.file_name AS fileName, h.file_size AS fileSize,
+                   h.mime_type AS mimeType, h.transfer_duration_seconds AS transferDurationSeconds,
+                   h.average_speed AS averageSpeed, h.completed_at AS completedAt
+            FROM (
+                (SELECT * FROM transfers
+                 WHERE sender_id = :userId AND (completed_at, id) < (:completedAt, :id)
+                 ORDER BY completed_at DESC, id DESC LIMIT :limit)
+                UNION
+                (SELECT * FROM transfers
+                 WHERE receiver_id = :userId AND (completed_at, id) < (:completedAt, :id)
+                 ORDER BY completed_at DESC, id DESC LIMIT :limit)
+            ) h
+            ORDER BY h.completed_at DESC, h.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<TransferHistoryView> findHistoryPage(UUID userId, LocalDateTime completedAt, UUID id, int limit);
+
+    /**
+     * Stream a user's full transfer history, oldest first, for exports
+     * Rows are pulled from a server-side cursor in fetch-size chunks; the caller must hold a transaction
+     * and close the stream. Both branches read their history index in order, so no sort is needed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT h.id, h.session_id AS sessionId, h.file_name AS fileName, h.file_size AS fileSize,
+                   h.mime_type AS mimeType, h.transfer_duration_seconds AS transferDurationSeconds,
+                   h.average_speed AS averageSpeed, h.completed_at AS completedAt
+            FROM (
+                SELECT * FROM transfers WHERE sender_id = :userId
+                UNION ALL
+                SELECT * FROM transfers WHERE receiver_id = :userId AND sender_id IS DISTINCT FROM :userId
+            ) h
+            ORDER BY h.completed_at, h.id
+            """, nativeQuery = true)
+    Stream<TransferHistoryView> streamHistory(UUID userId);
+
+    /**
+     * Delete one bounded batch of transfers completed before the cutoff, skipping locked rows
+     *
+     * @return Number of rows deleted (less than batchSize once caught up)
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM transfers WHERE id IN (
+                SELECT id FROM transfers
+                WHERE completed_at < :cutoff
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int deleteCompletedBefore(LocalDateTime cutoff, int batchSize);
+
     @Query("SELECT COUNT(t) FROM Transfer t WHERE t.sender.id = :userId")
     Long countBySenderId(UUID userId);
 
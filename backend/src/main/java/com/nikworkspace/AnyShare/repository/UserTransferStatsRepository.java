@@ -0,0 +1,38 @@
+package com.nikworkspace.AnyShare.repository;
+
+import com.nikworkspace.AnyShare.entity.UserTransferStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface UserTransferStatsRepository extends JpaRepository<UserTransferStats, UUID> {
+
+    /**
+     * Add a delta to a user's rollup, creating the row on first transfer
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_transfer_stats
+                (user_id, transfer_count, total_bytes, timed_bytes, total_duration_seconds, average_speed, last_transfer_at)
+            VALUES (:userId, :count, :bytes, :timedBytes, :durationSeconds,
+                    CASE WHEN :durationSeconds > 0 THEN :timedBytes / :durationSeconds END, :lastTransferAt)
+            ON CONFLICT (user_id) DO UPDATE SET
+                transfer_count = user_transfer_stats.transfer_count + EXCLUDED.transfer_count,
+                total_bytes = user_transfer_stats.total_bytes + EXCLUDED.total_bytes,
+                timed_bytes = user_transfer_stats.timed_bytes + EXCLUDED.timed_bytes,
+                total_duration_seconds = user_transfer_stats.total_duration_seconds + EXCLUDED.total_duration_seconds,
+                average_speed = CASE
+                    WHEN user_transfer_stats.total_duration_seconds + EXCLUDED.total_duration_seconds > 0
+                    THEN (user_transfer_stats.timed_bytes + EXCLUDED.timed_bytes)
+                         / (user_transfer_stats.total_duration_seconds + EXCLUDED.total_duration_seconds)
+                    END,
+                last_transfer_at = GREATEST(user_transfer_stats.last_transfer_at, EXCLUDED.last_transfer_at)
+            """, nativeQuery = true)
+    void addTransfers(UUID userId, long count, long bytes, long timedBytes, long durationSeconds,
+                      LocalDateTime lastTransferAt);
+}
@@ -1,5 +1,6 @@
 package com.nikworkspace.AnyShare.service;
 
+import com.nikworkspace.AnyShare.datasource.ReadWriteRoutingDataSource;
 import com.nikworkspace.AnyShare.dto.AuthResponse;
 import com.nikworkspace.AnyShare.dto.LoginRequest;
 import com.nikworkspace.AnyShare.dto.RefreshTokenRequest;
@@ -73,7 +74,8 @@ public class AuthService {
         );
 
         // If authentication successful, load user
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = ReadWriteRoutingDataSource.findWithPrimaryFallback(
+                        () -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         if (!user.getActive()) {
@@ -109,7 +111,7 @@ public class AuthService {
             String userId = claims.get("userId", String.class);
 
             // Load user to ensure they still exist and are active
-            User user = userRepository.findByEmail(email)
+            User user = ReadWriteRoutingDataSource.findWithPrimaryFallback(() -> userRepository.findByEmail(email))
                     .orElseThrow(() -> new InvalidTokenException("User not found"));
 
             if (!user.getActive()) {
@@ -0,0 +1,628 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.FileUploadRequest;
+import com.nikworkspace.AnyShare.dto.FileTreeResponse;
+import com.nikworkspace.AnyShare.dto.StoredFileResponse;
+import com.nikworkspace.AnyShare.entity.StoredFile;
+import com.nikworkspace.AnyShare.enums.SessionStatus;
+import com.nikworkspace.AnyShare.enums.StoredFileStatus;
+import com.nikworkspace.AnyShare.exception.*;
+import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.repository.SessionRepository;
+import com.nikworkspace.AnyShare.repository.StoredFileRepository;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.storage.ChunkStore;
+import com.nikworkspace.AnyShare.storage.ChunkWriter;
+import com.nikworkspace.AnyShare.storage.ChunkedUpload;
+import com.nikworkspace.AnyShare.storage.MerkleTree;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store-and-forward transfers: the sender uploads a file to its session, the receiver downloads it later
+ * A file is split into fixed-size chunks, kept in the content-addressed ChunkStore, so content
+ * already stored is not stored again, and content the same owner already uploaded is not
+ * uploaded again: the client can declare a manifest of chunk hashes and upload only the chunks
+ * it hasn't sent before. Chunks can
+ * be PUT in any order over parallel connections, or streamed in order with the tus-like PATCH
+ * protocol. The received bitmap and chunk hashes are persisted with the file row; the file is
+ * published atomically when its row turns COMPLETE. A file lives for its own lifetime, not its
+ * session's: file tokens let the peers finish an upload and download it after the session has
+ * expired. When the file expires its chunk references are released, and unreferenced chunks are
+ * collected.
+ */
+@Service
+@Slf4j
+public class FileStorageService {
+
+    private static final String SENDER = "SENDER";
+    private static final String RECEIVER = "RECEIVER";
+
+    private final StoredFileRepository storedFileRepository;
+    private final SessionRepository sessionRepository;
+    private final SessionServiceImpl sessionService;
+    private final ChunkStore chunkStore;
+    private final JwtUtil jwtUtil;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long maxFileBytes;
+    private final long maxChunkBytes;
+    private final int chunkBytes;
+    private final long fileTtlMinutes;
+    private final int maxSessionFiles;
+    private final long maxSessionBytes;
+    private final long maxTotalBytes;
+
+    // Serializes the quota check with the insert, so concurrent creates can't both fit in the last slot
+    private final Object quotaLock = new Object();
+
+    // Chunk state of uploads in progress, rebuilt from the persisted bitmap and hashes after a restart
+    private final Map<UUID, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+
+    public FileStorageService(StoredFileRepository storedFileRepository,
+                              SessionRepository sessionRepository,
+                              SessionServiceImpl sessionService,
+                              ChunkStore chunkStore,
+                              JwtUtil jwtUtil,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${anyshare.storage.max-file-bytes:209715200}") long maxFileBytes,
+                              @Value("${anyshare.storage.max-chunk-bytes:8388608}") long maxChunkBytes,
+                              @Value("${anyshare.storage.chunk-bytes:1048576}") int chunkBytes,
+                              @Value("${anyshare.storage.file-ttl-minutes:1440}") long fileTtlMinutes,
+                              @Value("${anyshare.storage.max-session-files:20}") int maxSessionFiles,
+                              @Value("${anyshare.storage.max-session-bytes:1073741824}") long maxSessionBytes,
+                              @Value("${anyshare.storage.max-total-bytes:21474836480}") long maxTotalBytes) {
+        this.storedFileRepository = storedFileRepository;
+        this.sessionRepository = sessionRepository;
+        this.sessionService = sessionService;
+        this.chunkStore = chunkStore;
+        this.jwtUtil = jwtUtil;
+        this.transactionTemplate = transactionTemplate;
+        this.maxFileBytes = maxFileBytes;
+        this.maxChunkBytes = maxChunkBytes;
+        this.chunkBytes = chunkBytes;
+        this.fileTtlMinutes = fileTtlMinutes;
+        this.maxSessionFiles = maxSessionFiles;
+        this.maxSessionBytes = maxSessionBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Register a new upload (sender only, while the session is open)
+     * The response carries a file token for the rest of the upload, valid until the file expires.
+     * A file reserves its full declared size against the session and server quotas until it expires.
+     */
+    public StoredFileResponse createUpload(String sessionId, String token, FileUploadRequest request) {
+        authorize(sessionId, token, true);
+        Session session = activeSession(sessionId);
+
+        if (request.getFileSize() > maxFileBytes) {
+            throw new UploadTooLargeException("File exceeds the " + maxFileBytes + " byte limit");
+        }
+
+        StoredFile file;
+        synchronized (quotaLock) {
+            checkQuota(UUID.fromString(sessionId), request.getFileSize());
+            file = storedFileRepository.save(StoredFile.builder()
+                    .session(sessionRepository.getReferenceById(UUID.fromString(sessionId)))
+                    .ownerId(session.getCreatorId() != null ? session.getCreatorId() : UUID.fromString(sessionId))
+                    .fileName(request.getFileName())
+                    .fileSize(request.getFileSize())
+                    .mimeType(request.getMimeType())
+                    .status(StoredFileStatus.UPLOADING)
+                    .chunkSize(chunkBytes)
+                    .expiresAt(LocalDateTime.now().plusMinutes(fileTtlMinutes))
+                    .build());
+        }
+
+        log.info("Upload {} started in session {}: {} ({} bytes)",
+                file.getId(), sessionId, file.getFileName(), file.getFileSize());
+
+        finalizeIfDone(file, upload(file));
+        return toResponse(file, SENDER);
+    }
+
+    /**
+     * Declare the SHA-256 of every chunk before uploading (sender only)
+     * Chunks this owner (the session's registered creator, or the session) uploaded before, in
+     * any transfer, count as received right away; the rest are checked against their declared
+     * hash when they arrive. A hash alone never claims content someone else uploaded.
+     *
+     * @param chunkHashes Lowercase hex SHA-256 per chunk, in order
+     * @return Upload state, listing the chunks still to upload
+     */
+    public StoredFileResponse declareManifest(String sessionId, String fileId, String token, List<String> chunkHashes) {
+        authorizeFile(sessionId, fileId, token, true);
+        StoredFile file = liveFile(sessionId, fileId);
+        if (file.getStatus() == StoredFileStatus.COMPLETE) {
+            throw new UploadConflictException("Upload of " + fileId + " is already complete");
+        }
+
+        ChunkedUpload upload = upload(file);
+        if (chunkHashes.size() != upload.getChunkCount()) {
+            throw new IllegalArgumentException("Manifest must list " + upload.getChunkCount() + " chunk hashes, got " + chunkHashes.size());
+        }
+
+        List<String> claimed = new ArrayList<>();
+        synchronized (upload) {
+            for (int index = 0; index < chunkHashes.size(); index++) {
+                if (upload.isReceived(index)) {
+                    continue;
+                }
+                String hash = chunkHashes.get(index);
+                upload.expect(index, hash);
+                if (chunkStore.claim(hash, owner(file))) {
+                    upload.markReceived(index, hash);
+                    claimed.add(hash);
+                }
+            }
+            saveChunkState(file, upload, claimed);
+        }
+        log.info("Upload {}: {} of {} chunks already stored", file.getId(), claimed.size(), upload.getChunkCount());
+
+        finalizeIfDone(file, upload);
+        return toResponse(file, SENDER);
+    }
+
+    /**
+     * Current state of a stored file, including the offset an interrupted upload resumes from
+     */
+    public StoredFileResponse getFile(String sessionId, String fileId, String token) {
+        String role = authorizeFile(sessionId, fileId, token, false);
+        StoredFile file = liveFile(sessionId, fileId);
+        if (file.getStatus() != StoredFileStatus.COMPLETE) {
+            // The last chunk may have landed just before a restart, leaving the row UPLOADING
+            finalizeIfDone(file, upload(file));
+        }
+        return toResponse(file, role);
+    }
+
+    /**
+     * Files stored in the session, each with a file token for the caller's role
+     */
+    public List<StoredFileResponse> listFiles(String sessionId, String token) {
+        String role = authorize(sessionId, token, false).get("role", String.class);
+        LocalDateTime now = LocalDateTime.now();
+        return storedFileRepository.findBySessionIdOrderByCreatedAtAsc(UUID.fromString(sessionId)).stream()
+                .filter(file -> file.getExpiresAt().isAfter(now))
+                .map(file -> toResponse(file, role))
+                .toList();
+    }
+
+    /**
+     * Write the next part of a sequential upload (sender only)
+     * If the request body breaks off, the bytes that did arrive are kept and the returned
+     * offset tells the client where to resume.
+     *
+     * @param offset Where the client believes the upload stands (must match the server)
+     * @param contentLength Declared chunk length, or -1 if unknown
+     * @return The new upload offset
+     */
+    public long appendChunk(String sessionId, String fileId, String token, long offset, long contentLength,
+                            InputStream body) throws IOException {
+        authorizeFile(sessionId, fileId, token, true);
+        StoredFile file = liveFile(sessionId, fileId);
+        if (file.getStatus() == StoredFileStatus.COMPLETE) {
+            throw new UploadConflictException("Upload of " + fileId + " is already complete");
+        }
+
+        ChunkedUpload upload = upload(file);
+        if (!upload.tryBeginSequential()) {
+            throw new UploadConflictException("Another PATCH of " + fileId + " is in progress");
+        }
+
+        long current = upload.offset();
+        long limit = Math.min(maxChunkBytes, file.getFileSize() - offset);
+        if (offset != current || contentLength > limit) {
+            upload.endSequential();
+            if (offset != current) {
+                throw new UploadConflictException("Upload-Offset " + offset + " does not match the upload offset " + current);
+            }
+            throw new UploadTooLargeException("Chunk of " + contentLength + " bytes exceeds the " + limit + " bytes allowed here");
+        }
+
+        long position = offset;
+        long end = offset + limit;
+        try {
+            while (position < end) {
+                int index = (int) (position / upload.getChunkSize());
+                long chunkEnd = upload.chunkStart(index) + upload.chunkLength(index);
+
+                // Continue the chunk an earlier PATCH broke off in, or start the next one
+                ChunkWriter writer = upload.takePartial(index);
+                if (writer == null) {
+                    writer = chunkStore.newWriter();
+                }
+
+                long copied;
+                try {
+                    copied = writer.write(body, Math.min(chunkEnd, end) - position);
+                } catch (IOException e) {
+                    writer.discard();
+                    throw e;
+                }
+                position += copied;
+
+                if (position < chunkEnd) {
+                    // Body ended mid-chunk: keep it so the next PATCH resumes from this exact byte
+                    discard(upload.keepPartial(index, writer));
+                    break;
+                }
+                commitChunk(file, upload, index, writer);
+            }
+
+            // A chunked body (no Content-Length) that runs past the limit: what fit is kept
+            if (position == end && hasMore(body)) {
+                throw new UploadTooLargeException("Chunk exceeds the " + limit + " bytes allowed here");
+            }
+        } finally {
+            upload.endSequential();
+        }
+
+        finalizeIfDone(file, upload);
+        return upload.offset();
+    }
+
+    /**
+     * Write one chunk at its index (sender only); chunks may arrive in any order and in parallel
+     * Re-sending a chunk that already arrived is a no-op, so clients can retry blindly.
+     *
+     * @param contentLength Declared length, or -1 if unknown; must be the chunk's length when given
+     * @return The upload offset (the file size once every chunk is in)
+     */
+    public long putChunk(String sessionId, String fileId, String token, int index, long contentLength,
+                         InputStream body) throws IOException {
+        authorizeFile(sessionId, fileId, token, true);
+        StoredFile file = liveFile(sessionId, fileId);
+        if (file.getStatus() == StoredFileStatus.COMPLETE) {
+            return file.getFileSize();
+        }
+
+        ChunkedUpload upload = upload(file);
+        if (index < 0 || index >= upload.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (upload.getChunkCount() - 1));
+        }
+
+        long length = upload.chunkLength(index);
+        if (contentLength > length) {
+            throw new UploadTooLargeException("Chunk " + index + " is " + length + " bytes, got " + contentLength);
+        }
+        if (contentLength >= 0 && contentLength < length) {
+            throw new IllegalArgumentException("Chunk " + index + " is " + length + " bytes, got " + contentLength);
+        }
+
+        if (upload.isReceived(index)) {
+            // A retry of the last chunk, or every chunk was in before a restart: finish the file if nobody has
+            finalizeIfDone(file, upload);
+            return upload.offset();
+        }
+        if (!upload.tryBegin(index)) {
+            throw new UploadConflictException("Chunk " + index + " of " + fileId + " is already being uploaded");
+        }
+
+        ChunkWriter writer = null;
+        boolean received = false;
+        try {
+            writer = chunkStore.newWriter();
+            long copied = writer.write(body, length);
+            if (copied < length) {
+                throw new IllegalArgumentException("Chunk " + index + " ended after " + copied + " of " + length + " bytes");
+            }
+            if (hasMore(body)) {
+                throw new UploadTooLargeException("Chunk " + index + " is longer than " + length + " bytes");
+            }
+
+            commitChunk(file, upload, index, writer);
+            received = true;
+        } finally {
+            if (!received) {
+                discard(writer);
+                upload.abort(index);
+            }
+        }
+
+        finalizeIfDone(file, upload);
+        return upload.offset();
+    }
+
+    /**
+     * Path of a completed file for download (any peer of the session)
+     */
+    public StoredFile openDownload(String sessionId, String fileId, String token) {
+        authorizeFile(sessionId, fileId, token, false);
+        StoredFile file = liveFile(sessionId, fileId);
+        if (file.getStatus() != StoredFileStatus.COMPLETE) {
+            throw new UploadConflictException("Upload of " + fileId + " is not complete yet");
+        }
+        return file;
+    }
+
+    /**
+     * Hash tree of a completed file, for receivers to check each chunk as it arrives
+     * A chunk whose SHA-256 differs from its leaf is re-fetched with a Range request on its bounds.
+     */
+    public FileTreeResponse getTree(String sessionId, String fileId, String token) {
+        StoredFile file = openDownload(sessionId, fileId, token);
+        List<byte[][]> levels = MerkleTree.levels(file.getChunkHashes());
+        HexFormat hex = HexFormat.of();
+        List<List<String>> hexLevels = levels.stream()
+                .map(level -> Arrays.stream(level).map(hex::formatHex).toList())
+                .toList();
+        return FileTreeResponse.builder()
+                .fileId(file.getId().toString())
+                .algorithm("sha256")
+                .fileSize(file.getFileSize())
+                .chunkBytes(file.getChunkSize())
+                .chunkHashes(chunkHashes(file))
+                .root(hexLevels.get(hexLevels.size() - 1).get(0))
+                .levels(hexLevels)
+                .build();
+    }
+
+    /**
+     * Chunk files of a completed file, in order
+     */
+    public List<Path> chunkPaths(StoredFile file) {
+        return chunkHashes(file).stream().map(chunkStore::path).toList();
+    }
+
+    private List<String> chunkHashes(StoredFile file) {
+        byte[] hashes = file.getChunkHashes();
+        List<String> hexHashes = new ArrayList<>(hashes.length / ChunkedUpload.HASH_BYTES);
+        for (int from = 0; from < hashes.length; from += ChunkedUpload.HASH_BYTES) {
+            hexHashes.add(HexFormat.of().formatHex(hashes, from, from + ChunkedUpload.HASH_BYTES));
+        }
+        return hexHashes;
+    }
+
+    /**
+     * Delete expired files, a bounded batch per run
+     * Each file's row is locked, deleted and its chunk references released in one transaction,
+     * so a failure releases nothing and a chunk saved concurrently is either seen here or fails
+     * its own save. Chunks stay as long as another file still references them.
+     */
+    @Scheduled(initialDelayString = "${anyshare.storage.sweep-ms:60000}", fixedDelayString = "${anyshare.storage.sweep-ms:60000}")
+    public void deleteExpiredFiles() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        for (StoredFile expired : storedFileRepository.findTop500ByExpiresAtBeforeOrderByExpiresAtAsc(now)) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteIfExpired(expired.getId(), now)))) {
+                    deleted++;
+                }
+            } catch (Exception e) {
+                log.warn("Could not delete expired file {}: {}", expired.getId(), e.getMessage());
+                continue;
+            }
+
+            ChunkedUpload upload = uploads.remove(expired.getId());
+            if (upload != null) {
+                discard(upload.dropPartial(-1));
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Deleted {} expired stored files", deleted);
+        }
+    }
+
+    private boolean deleteIfExpired(UUID id, LocalDateTime now) {
+        return storedFileRepository.lockIfExpired(id, now)
+                .map(file -> {
+                    new ChunkedUpload(file.getFileSize(), file.getChunkSize(), file.getChunkBitmap(), file.getChunkHashes())
+                            .receivedHashes().forEach(chunkStore::release);
+                    storedFileRepository.delete(file);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private boolean hasMore(InputStream body) {
+        try {
+            return body.read() >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private ChunkedUpload upload(StoredFile file) {
+        return uploads.computeIfAbsent(file.getId(), id -> new ChunkedUpload(file.getFileSize(),
+                file.getChunkSize(), file.getChunkBitmap(), file.getChunkHashes()));
+    }
+
+    /**
+     * Check a finished chunk against its declared hash, store it and record it as received
+     * Updating the upload and saving its state happen in one step per upload, so an older
+     * state can't overwrite a newer one.
+     */
+    private void commitChunk(StoredFile file, ChunkedUpload upload, int index, ChunkWriter writer) throws IOException {
+        String hash = writer.finish();
+        String expected = upload.hash(index);
+        if (expected != null && !expected.equals(hash)) {
+            writer.discard();
+            throw new IllegalArgumentException("Chunk " + index + " does not match its manifest hash");
+        }
+
+        synchronized (upload) {
+            if (upload.isReceived(index)) {
+                // Also arrived through the other upload path meanwhile
+                writer.discard();
+                return;
+            }
+            chunkStore.commit(writer, hash, owner(file));
+            upload.markReceived(index, hash);
+            saveChunkState(file, upload, List.of(hash));
+        }
+        discard(upload.dropPartial(index));
+    }
+
+    /**
+     * Persist the upload's chunk state; if the sweep deleted the file meanwhile, give back the
+     * references just taken (the sweep released only those it saw) and fail
+     */
+    private void saveChunkState(StoredFile file, ChunkedUpload upload, List<String> taken) {
+        if (storedFileRepository.updateChunkState(file.getId(), upload.bitmap(), upload.hashes()) == 0) {
+            taken.forEach(chunkStore::release);
+            uploads.remove(file.getId());
+            throw new StoredFileNotFoundException("File " + file.getId() + " has expired");
+        }
+    }
+
+    private UUID owner(StoredFile file) {
+        // Files created before owners were recorded only claim their own session's chunks
+        return file.getOwnerId() != null ? file.getOwnerId() : file.getSession().getId();
+    }
+
+    private void discard(ChunkWriter writer) {
+        if (writer != null) {
+            writer.discard();
+        }
+    }
+
+    private void finalizeIfDone(StoredFile file, ChunkedUpload upload) {
+        if (upload.claimFinalize()) {
+            complete(file, upload);
+        }
+    }
+
+    /**
+     * Publish the file: every chunk is already durable in the store, so flipping the row is the commit
+     */
+    private void complete(StoredFile file, ChunkedUpload upload) {
+        file.setStatus(StoredFileStatus.COMPLETE);
+        file.setCompletedAt(LocalDateTime.now());
+        file.setChunkBitmap(upload.bitmap());
+        file.setChunkHashes(upload.hashes());
+        file.setMerkleRoot(HexFormat.of().formatHex(MerkleTree.root(file.getChunkHashes())));
+        storedFileRepository.save(file);
+        uploads.remove(file.getId());
+        log.info("Upload {} complete ({} bytes)", file.getId(), file.getFileSize());
+    }
+
+    /**
+     * Check the peer token belongs to this session (and to its sender, for uploads)
+     */
+    private Claims authorize(String sessionId, String token, boolean senderOnly) {
+        Claims claims = jwtUtil.validateToken(token);
+        if (!"WEBSOCKET".equals(claims.get("type", String.class))
+                || !sessionId.equals(claims.get("sessionId", String.class))) {
+            throw new UnauthorizedException("Token is not valid for session " + sessionId);
+        }
+        if (senderOnly && !SENDER.equals(claims.get("role", String.class))) {
+            throw new UnauthorizedException("Only the sender can upload files");
+        }
+        return claims;
+    }
+
+    /**
+     * Check the token grants access to this file: a peer token of its session, or the file's own token
+     *
+     * @return The caller's role
+     */
+    private String authorizeFile(String sessionId, String fileId, String token, boolean senderOnly) {
+        Claims claims = jwtUtil.validateToken(token);
+        String type = claims.get("type", String.class);
+        boolean valid = sessionId.equals(claims.get("sessionId", String.class))
+                && ("WEBSOCKET".equals(type) || ("STORED_FILE".equals(type) && fileId.equals(claims.getSubject())));
+        if (!valid) {
+            throw new UnauthorizedException("Token is not valid for file " + fileId);
+        }
+        String role = claims.get("role", String.class);
+        if (senderOnly && !SENDER.equals(role)) {
+            throw new UnauthorizedException("Only the sender can upload files");
+        }
+        return role;
+    }
+
+    /**
+     * Reject a new file that would exceed the session's file count or bytes, or the server's stored bytes
+     */
+    private void checkQuota(UUID sessionId, long fileSize) {
+        LocalDateTime now = LocalDateTime.now();
+        if (storedFileRepository.countBySessionIdAndExpiresAtAfter(sessionId, now) >= maxSessionFiles) {
+            throw new StorageQuotaExceededException("Session already stores " + maxSessionFiles + " files");
+        }
+        if (storedFileRepository.sumLiveBytesBySessionId(sessionId, now) + fileSize > maxSessionBytes) {
+            throw new StorageQuotaExceededException("File would exceed the session's " + maxSessionBytes + " byte quota");
+        }
+        if (storedFileRepository.sumLiveBytes(now) + fileSize > maxTotalBytes) {
+            throw new StorageQuotaExceededException("Server storage is full, try again later");
+        }
+    }
+
+    private Session activeSession(String sessionId) {
+        Session session = sessionService.getOrLoadSession(sessionId);
+        if (session.isExpired()) {
+            throw new SessionExpiredException(
+                    "Session expired at " + session.getExpiresAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+        if (session.getStatus() != SessionStatus.WAITING && session.getStatus() != SessionStatus.CONNECTED) {
+            throw new InvalidSessionStateException("Session is " + session.getStatus());
+        }
+        return session;
+    }
+
+    /**
+     * A file that hasn't expired yet (expired ones are gone, even before the sweep deletes them)
+     */
+    private StoredFile liveFile(String sessionId, String fileId) {
+        StoredFile file = findFile(sessionId, fileId);
+        if (!file.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new StoredFileNotFoundException("File " + fileId + " has expired");
+        }
+        return file;
+    }
+
+    private StoredFile findFile(String sessionId, String fileId) {
+        UUID id;
+        try {
+            id = UUID.fromString(fileId);
+        } catch (IllegalArgumentException e) {
+            throw new StoredFileNotFoundException("File " + fileId + " not found");
+        }
+        return storedFileRepository.findByIdAndSessionId(id, UUID.fromString(sessionId))
+                .orElseThrow(() -> new StoredFileNotFoundException("File " + fileId + " not found"));
+    }
+
+    /**
+     * @param role Caller's role, which the returned file token is issued for
+     */
+    private StoredFileResponse toResponse(StoredFile file, String role) {
+        boolean complete = file.getStatus() == StoredFileStatus.COMPLETE;
+        ChunkedUpload upload = complete ? null : upload(file);
+        return StoredFileResponse.builder()
+                .fileId(file.getId().toString())
+                .fileName(file.getFileName())
+                .fileSize(file.getFileSize())
+                .mimeType(file.getMimeType())
+                .uploadedBytes(complete ? file.getFileSize() : upload.receivedBytes())
+                .uploadOffset(complete ? file.getFileSize() : upload.offset())
+                .complete(complete)
+                .chunkBytes(file.getChunkSize())
+                .missingChunks(complete ? List.of() : upload.missingChunks())
+                .maxChunkBytes(maxChunkBytes)
+                .merkleRoot(file.getMerkleRoot())
+                .expiresAt(file.getExpiresAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .fileToken(jwtUtil.generateFileToken(file.getSession().getId().toString(), file.getId().toString(),
+                        SENDER.equals(role) ? SENDER : RECEIVER, file.getExpiresAt()))
+                .build();
+    }
+}
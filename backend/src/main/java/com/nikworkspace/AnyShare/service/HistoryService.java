@@ -0,0 +1,241 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.HistoryPageResponse;
+import com.nikworkspace.AnyShare.dto.SessionHistoryItem;
+import com.nikworkspace.AnyShare.dto.TransferHistoryItem;
+import com.nikworkspace.AnyShare.repository.SessionHistoryView;
+import com.nikworkspace.AnyShare.repository.SessionRepository;
+import com.nikworkspace.AnyShare.repository.TransferHistoryView;
+import com.nikworkspace.AnyShare.repository.TransferRepository;
+import com.nikworkspace.AnyShare.util.HistoryCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated transfer and session history, plus full streaming exports
+ * Pages seek past the last (timestamp, id) served instead of using OFFSET, so deep pages stay cheap
+ */
+@Service
+@Slf4j
+public class HistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Rows written between flushes, so the client sees progress on long exports
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final String CSV_HEADER =
+            "transferId,sessionId,fileName,fileSize,mimeType,transferDurationSeconds,averageSpeed,completedAt";
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be ndjson or csv");
+            }
+        }
+    }
+
+    private final TransferRepository transferRepository;
+    private final SessionRepository sessionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public HistoryService(TransferRepository transferRepository,
+                          SessionRepository sessionRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.transferRepository = transferRepository;
+        this.sessionRepository = sessionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public HistoryPageResponse<TransferHistoryItem> getTransferHistory(UUID userId, String cursor, Integer limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<TransferHistoryView> rows = transferRepository.findHistoryPage(
+                userId, after.timestamp(), after.id(), pageSize + 1);
+
+        return toPage(rows, pageSize, this::toTransferItem,
+                row -> new HistoryCursor(row.getCompletedAt(), row.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public HistoryPageResponse<SessionHistoryItem> getSessionHistory(UUID userId, String cursor, Integer limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+
+        List<SessionHistoryView> rows = sessionRepository.findHistoryPage(
+                userId, after.timestamp(), after.id(), pageSize + 1);
+
+        return toPage(rows, pageSize, this::toSessionItem,
+                row -> new HistoryCursor(row.getCreatedAt(), row.getId()));
+    }
+
+    /**
+     * Write a user's complete transfer history to the output, oldest first
+     * Rows are streamed from a database cursor and written one at a time, so memory use does not
+     * grow with history size. A client disconnect surfaces as an IOException on write, which
+     * closes the cursor and ends the transaction.
+     *
+     * @throws IOException if the client went away
+     */
+    public void exportTransfers(UUID userId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        try {
+            long rows = readOnlyTransaction.execute(status -> {
+                try (Stream<TransferHistoryView> stream = transferRepository.streamHistory(userId)) {
+                    return writeRows(stream.iterator(), format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.info("Exported {} transfers for user {} as {}", rows, userId, format);
+        } catch (UncheckedIOException e) {
+            log.info("Transfer export for user {} aborted: {}", userId, e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private long writeRows(Iterator<TransferHistoryView> rows, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        while (rows.hasNext()) {
+            TransferHistoryItem item = toTransferItem(rows.next());
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(item, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(item));
+                writer.write('\n');
+            }
+
+            if (++count % EXPORT_FLUSH_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    private void writeCsvLine(TransferHistoryItem item, Writer writer) throws IOException {
+        writer.write(String.join(",",
+                item.getTransferId(),
+                item.getSessionId(),
+                csvField(item.getFileName()),
+                csvField(item.getFileSize()),
+                csvField(item.getMimeType()),
+                csvField(item.getTransferDurationSeconds()),
+                csvField(item.getAverageSpeed()),
+                csvField(item.getCompletedAt())));
+        writer.write('\n');
+    }
+
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private <V, T> HistoryPageResponse<T> toPage(List<V> rows, int pageSize,
+                                                 Function<V, T> mapper,
+                                                 Function<V, HistoryCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<V> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return HistoryPageResponse.<T>builder()
+                .items(page.stream().map(mapper).toList())
+                .nextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    private TransferHistoryItem toTransferItem(TransferHistoryView row) {
+        return TransferHistoryItem.builder()
+                .transferId(row.getId().toString())
+                .sessionId(row.getSessionId().toString())
+                .fileName(row.getFileName())
+                .fileSize(row.getFileSize())
+                .mimeType(row.getMimeType())
+                .transferDurationSeconds(row.getTransferDurationSeconds())
+                .averageSpeed(row.getAverageSpeed())
+                .completedAt(format(row.getCompletedAt()))
+                .build();
+    }
+
+    private SessionHistoryItem toSessionItem(SessionHistoryView row) {
+        return SessionHistoryItem.builder()
+                .sessionId(row.getId().toString())
+                .roomCode(row.getRoomCode())
+                .status(row.getStatus())
+                .createdAt(format(row.getCreatedAt()))
+                .expiresAt(format(row.getExpiresAt()))
+                .closedAt(format(row.getClosedAt()))
+                .build();
+    }
+
+    private String format(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.repository.SessionRepository;
+import com.nikworkspace.AnyShare.repository.TransferRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Purges old session and transfer rows so hot tables stay small
+ * Deletes run in bounded batches, each in its own short transaction, and skip rows
+ * that other transactions hold locks on
+ */
+@Service
+@Slf4j
+public class RetentionService {
+
+    private final SessionRepository sessionRepository;
+    private final TransferRepository transferRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int sessionRetentionDays;
+    private final int transferRetentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public RetentionService(SessionRepository sessionRepository,
+                            TransferRepository transferRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${anyshare.retention.session-days:30}") int sessionRetentionDays,
+                            @Value("${anyshare.retention.transfer-days:365}") int transferRetentionDays,
+                            @Value("${anyshare.retention.batch-size:1000}") int batchSize,
+                            @Value("${anyshare.retention.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.sessionRepository = sessionRepository;
+        this.transferRepository = transferRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sessionRetentionDays = sessionRetentionDays;
+        this.transferRetentionDays = transferRetentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Run one retention pass (a retention of 0 days or less disables that table's purge)
+     * Each run is capped so it never holds up the other scheduled jobs for long;
+     * a backlog is worked off over several runs.
+     */
+    @Scheduled(initialDelayString = "${anyshare.retention.initial-delay-ms:60000}",
+            fixedDelayString = "${anyshare.retention.interval-ms:600000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Transfers first, so sessions they referenced become eligible in the same run
+        if (transferRetentionDays > 0) {
+            LocalDateTime cutoff = now.minusDays(transferRetentionDays);
+            purgeInBatches("transfers", () -> transferRepository.deleteCompletedBefore(cutoff, batchSize));
+        }
+
+        if (sessionRetentionDays > 0) {
+            LocalDateTime cutoff = now.minusDays(sessionRetentionDays);
+            purgeInBatches("sessions", () -> sessionRepository.deleteFinishedBefore(cutoff, batchSize));
+        }
+    }
+
+    private void purgeInBatches(String table, IntSupplier deleteBatch) {
+        long total = 0;
+        int batches = 0;
+        int deleted;
+
+        do {
+            Integer result = transactionTemplate.execute(status -> deleteBatch.getAsInt());
+            deleted = result != null ? result : 0;
+            total += deleted;
+            batches++;
+        } while (deleted == batchSize && batches < maxBatchesPerRun);
+
+        if (total > 0) {
+            log.info("Retention purged {} {} rows in {} batches{}", total, table, batches,
+                    deleted == batchSize ? " (more remaining)" : "");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nikworkspace.AnyShare.dto.SessionInfoResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes session status changes to Server-Sent Events subscribers
+ * Each change is serialized once and the same encoded frame is written to every watcher.
+ * Writes run on a small pool of lanes, each session pinned to one lane so its events stay in
+ * order. A stalled client can only hold up the sessions sharing its lane, and a watcher whose
+ * write has been stuck longer than the send timeout gets no further events.
+ */
+@Service
+@Slf4j
+public class SessionStatusBroadcaster {
+
+    private static final String EVENT_NAME = "status";
+    private static final int DEFAULT_FANOUT_THREADS = 4;
+    private static final long DEFAULT_SEND_TIMEOUT_MILLIS = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // sessionId -> watchers of that session
+    private final ConcurrentHashMap<String, List<Watcher>> subscribers = new ConcurrentHashMap<>();
+
+    // Single-thread executors; a session always uses the same one, which keeps its event order
+    private final ExecutorService[] lanes;
+    private final long sendTimeoutNanos;
+
+    public SessionStatusBroadcaster() {
+        this(DEFAULT_FANOUT_THREADS, DEFAULT_SEND_TIMEOUT_MILLIS);
+    }
+
+    @Autowired
+    public SessionStatusBroadcaster(@Value("${anyshare.session.status-fanout-threads:4}") int fanOutThreads,
+                                    @Value("${anyshare.session.status-send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.lanes = new ExecutorService[fanOutThreads];
+        for (int i = 0; i < fanOutThreads; i++) {
+            String name = "session-status-fanout-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+    }
+
+    /**
+     * Register a watcher and send it the current state
+     *
+     * @param sessionId Session to watch
+     * @param current Current session info, sent as the first event
+     * @param timeoutMillis Emitter timeout (normally until session expiry)
+     */
+    public SseEmitter subscribe(String sessionId, SessionInfoResponse current, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Watcher watcher = new Watcher(emitter);
+        List<Watcher> watchers = subscribers.compute(sessionId, (id, existing) -> {
+            List<Watcher> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(watcher);
+            return list;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(sessionId, watcher));
+        emitter.onTimeout(() -> unsubscribe(sessionId, watcher));
+        emitter.onError(e -> unsubscribe(sessionId, watcher));
+
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = encode(current);
+        if (frame != null) {
+            lane(sessionId).execute(() -> send(sessionId, watcher, frame));
+        }
+
+        log.debug("Status watcher added for session {} ({} watching)", sessionId, watchers.size());
+        return emitter;
+    }
+
+    /**
+     * Check if anyone is watching, so callers can skip building the response
+     */
+    public boolean hasSubscribers(String sessionId) {
+        List<Watcher> watchers = subscribers.get(sessionId);
+        return watchers != null && !watchers.isEmpty();
+    }
+
+    /**
+     * Push a status change to all watchers of the session
+     */
+    public void publish(SessionInfoResponse info) {
+        String sessionId = info.getSessionId();
+        if (!hasSubscribers(sessionId)) {
+            return;
+        }
+
+        // Encoded once, shared by every watcher
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = encode(info);
+        if (frame == null) {
+            return;
+        }
+
+        dropStalled(sessionId);
+        lane(sessionId).execute(() -> {
+            List<Watcher> watchers = subscribers.get(sessionId);
+            if (watchers != null) {
+                watchers.forEach(watcher -> send(sessionId, watcher, frame));
+            }
+        });
+    }
+
+    /**
+     * Push the final state and close all streams of a session (closed or expired)
+     */
+    public void complete(SessionInfoResponse finalInfo) {
+        publish(finalInfo);
+
+        String sessionId = finalInfo.getSessionId();
+        lane(sessionId).execute(() -> {
+            List<Watcher> watchers = subscribers.remove(sessionId);
+            if (watchers != null) {
+                watchers.forEach(watcher -> watcher.emitter.complete());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Arrays.stream(lanes).forEach(ExecutorService::shutdownNow);
+    }
+
+    private ExecutorService lane(String sessionId) {
+        return lanes[Math.floorMod(sessionId.hashCode(), lanes.length)];
+    }
+
+    /**
+     * Stop sending to watchers whose current write has been stuck past the send timeout
+     * The stuck write itself ends when the container's write timeout closes the connection.
+     */
+    private void dropStalled(String sessionId) {
+        List<Watcher> watchers = subscribers.get(sessionId);
+        if (watchers == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Watcher watcher : watchers) {
+            long since = watcher.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                log.info("Dropping stalled status watcher of session {}", sessionId);
+                unsubscribe(sessionId, watcher);
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(SessionInfoResponse info) {
+        try {
+            String json = objectMapper.writeValueAsString(info);
+            return SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Error encoding session status: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void send(String sessionId, Watcher watcher, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        watcher.sendingSince = System.nanoTime();
+        try {
+            watcher.emitter.send(frame);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, drop the watcher
+            unsubscribe(sessionId, watcher);
+        } finally {
+            watcher.sendingSince = 0;
+        }
+    }
+
+    private void unsubscribe(String sessionId, Watcher watcher) {
+        subscribers.computeIfPresent(sessionId, (id, watchers) -> {
+            watchers.remove(watcher);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    private static final class Watcher {
+        final SseEmitter emitter;
+        // System.nanoTime() when the write in progress started, 0 when idle
+        volatile long sendingSince;
+
+        Watcher(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
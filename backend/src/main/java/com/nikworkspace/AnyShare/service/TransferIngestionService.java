@@ -0,0 +1,199 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.TransferReportRequest;
+import com.nikworkspace.AnyShare.entity.SessionEntity;
+import com.nikworkspace.AnyShare.entity.Transfer;
+import com.nikworkspace.AnyShare.entity.User;
+import com.nikworkspace.AnyShare.exception.RateLimitExceededException;
+import com.nikworkspace.AnyShare.repository.TransferRepository;
+import com.nikworkspace.AnyShare.repository.UserTransferStatsRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Records completed transfers off the request path
+ * Reports go into a bounded in-memory queue that is flushed to the database in JDBC batches,
+ * together with incremental updates of the per-user stats rollup
+ */
+@Service
+@Slf4j
+public class TransferIngestionService {
+
+    private final TransferRepository transferRepository;
+    private final UserTransferStatsRepository statsRepository;
+    private final UserStatsService userStatsService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    private final BlockingQueue<PendingTransfer> queue;
+    private final int batchSize;
+
+    public TransferIngestionService(TransferRepository transferRepository,
+                                    UserTransferStatsRepository statsRepository,
+                                    UserStatsService userStatsService,
+                                    EntityManager entityManager,
+                                    TransactionTemplate transactionTemplate,
+                                    Validator validator,
+                                    @Value("${anyshare.transfers.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${anyshare.transfers.batch-size:50}") int batchSize) {
+        this.transferRepository = transferRepository;
+        this.statsRepository = statsRepository;
+        this.userStatsService = userStatsService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queue a completed transfer for persistence
+     *
+     * @param sessionId Session the transfer happened in
+     * @param senderId Registered user who created the session (null for anonymous)
+     * @param report Transfer details reported by the client
+     * @throws IllegalArgumentException if the report is invalid (WebSocket reports skip @Valid)
+     * @throws RateLimitExceededException if the queue is full
+     */
+    public void submit(UUID sessionId, UUID senderId, TransferReportRequest report) {
+        Set<ConstraintViolation<TransferReportRequest>> violations = validator.validate(report);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        PendingTransfer pending = new PendingTransfer(
+                sessionId,
+                senderId,
+                report.getFileName(),
+                report.getFileSize(),
+                report.getMimeType(),
+                report.getTransferDurationSeconds()
+        );
+
+        if (!queue.offer(pending)) {
+            log.warn("Transfer report queue full, rejecting report for session {}", sessionId);
+            throw new RateLimitExceededException("Too many transfer reports, please retry shortly", 1);
+        }
+    }
+
+    /**
+     * Drain the queue in batches, one transaction per batch
+     * A batch that fails is retried one report at a time, so a bad report only loses itself.
+     */
+    @Scheduled(fixedDelayString = "${anyshare.transfers.flush-interval-ms:1000}")
+    public void flush() {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                userStatsService.evict(transactionTemplate.execute(status -> persist(batch)));
+                log.debug("Flushed {} transfer reports", batch.size());
+            } catch (Exception e) {
+                log.warn("Failed to persist {} transfer reports, retrying one by one: {}", batch.size(), e.getMessage());
+                batch.forEach(this::persistAlone);
+            }
+            batch.clear();
+        }
+    }
+
+    private void persistAlone(PendingTransfer pending) {
+        try {
+            userStatsService.evict(transactionTemplate.execute(status -> persist(List.of(pending))));
+        } catch (Exception e) {
+            log.error("Dropping transfer report {}: {}", pending, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Insert the batch and fold it into the per-user rollups in the same transaction
+     *
+     * @return Users whose stats changed
+     */
+    private Set<UUID> persist(List<PendingTransfer> batch) {
+        List<Transfer> transfers = new ArrayList<>(batch.size());
+        Map<UUID, StatsDelta> deltas = new HashMap<>();
+
+        for (PendingTransfer pending : batch) {
+            Integer duration = pending.durationSeconds();
+
+            // References only, no SELECT for the session or user rows
+            transfers.add(Transfer.builder()
+                    .session(entityManager.getReference(SessionEntity.class, pending.sessionId()))
+                    .sender(pending.senderId() != null
+                            ? entityManager.getReference(User.class, pending.senderId())
+                            : null)
+                    .fileName(pending.fileName())
+                    .fileSize(pending.fileSize())
+                    .mimeType(pending.mimeType())
+                    .transferDurationSeconds(duration)
+                    .averageSpeed(duration != null && duration > 0 ? pending.fileSize() / duration : null)
+                    .build());
+
+            if (pending.senderId() != null) {
+                deltas.computeIfAbsent(pending.senderId(), id -> new StatsDelta()).add(pending);
+            }
+        }
+
+        transferRepository.saveAll(transfers);
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((userId, delta) -> statsRepository.addTransfers(
+                userId, delta.count, delta.bytes, delta.timedBytes, delta.durationSeconds, now));
+
+        return deltas.keySet();
+    }
+
+    /**
+     * Rollup increment for one user within a batch
+     */
+    private static class StatsDelta {
+        long count;
+        long bytes;
+        long timedBytes;
+        long durationSeconds;
+
+        void add(PendingTransfer pending) {
+            count++;
+            bytes += pending.fileSize();
+            if (pending.durationSeconds() != null && pending.durationSeconds() > 0) {
+                timedBytes += pending.fileSize();
+                durationSeconds += pending.durationSeconds();
+            }
+        }
+    }
+
+    private record PendingTransfer(UUID sessionId,
+                                   UUID senderId,
+                                   String fileName,
+                                   Long fileSize,
+                                   String mimeType,
+                                   Integer durationSeconds) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.UserTransferStatsResponse;
+import com.nikworkspace.AnyShare.entity.UserTransferStats;
+import com.nikworkspace.AnyShare.repository.UserTransferStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dashboard stats reads: one primary-key lookup on the rollup table,
+ * fronted by a small in-memory LRU cache of hot users
+ */
+@Service
+@Slf4j
+public class UserStatsService {
+
+    private final UserTransferStatsRepository statsRepository;
+    private final Map<UUID, UserTransferStatsResponse> hotCache;
+    // Bumped by every evict, so a read that raced with one isn't cached (guarded by hotCache)
+    private long evictions;
+
+    public UserStatsService(UserTransferStatsRepository statsRepository,
+                            @Value("${anyshare.stats.cache-size:10000}") int cacheSize) {
+        this.statsRepository = statsRepository;
+        this.hotCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserTransferStatsResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Get a user's transfer stats, constant time regardless of history size
+     */
+    public UserTransferStatsResponse getStats(UUID userId) {
+        long generation;
+        synchronized (hotCache) {
+            UserTransferStatsResponse cached = hotCache.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = evictions;
+        }
+
+        UserTransferStatsResponse stats = statsRepository.findById(userId)
+                .map(this::toResponse)
+                .orElseGet(() -> UserTransferStatsResponse.builder()
+                        .transferCount(0L)
+                        .totalBytes(0L)
+                        .build());
+
+        // A flush that committed and evicted after our read would make this value stale
+        synchronized (hotCache) {
+            if (evictions == generation) {
+                hotCache.put(userId, stats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Drop cached stats after their rollup rows changed (call after the change committed)
+     */
+    public void evict(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        synchronized (hotCache) {
+            evictions++;
+            userIds.forEach(hotCache::remove);
+        }
+    }
+
+    private UserTransferStatsResponse toResponse(UserTransferStats stats) {
+        return UserTransferStatsResponse.builder()
+                .transferCount(stats.getTransferCount())
+                .totalBytes(stats.getTotalBytes())
+                .averageSpeed(stats.getAverageSpeed())
+                .lastTransferAt(stats.getLastTransferAt() != null
+                        ? stats.getLastTransferAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                        : null)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.nikworkspace.AnyShare.service.impl;
 
+import com.nikworkspace.AnyShare.datasource.ReadWriteRoutingDataSource;
 import com.nikworkspace.AnyShare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,7 +20,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         log.debug("Loading user by email: {}", email);
 
-        return userRepository.findByEmail(email)
+        // Falls back to the primary so a just-registered user can sign in before replication catches up
+        // (only reached for logins and AUTH tokens, so misses stay rare)
+        return ReadWriteRoutingDataSource.findWithPrimaryFallback(() -> userRepository.findByEmail(email))
                 .orElseThrow(() -> {
                     log.warn("User not found with email: {}", email);
                     return new UsernameNotFoundException("User not found with email: " + email);
@@ -1,23 +1,35 @@
 package com.nikworkspace.AnyShare.service.impl;
 
+import com.nikworkspace.AnyShare.datasource.ReadWriteRoutingDataSource;
 import com.nikworkspace.AnyShare.dto.*;
 import com.nikworkspace.AnyShare.entity.SessionEntity;
 import com.nikworkspace.AnyShare.exception.*;
+import com.nikworkspace.AnyShare.jfr.SessionLifecycleEvent;
 import com.nikworkspace.AnyShare.model.Peer;
 import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.model.SessionTimeline;
 import com.nikworkspace.AnyShare.enums.SessionStatus;
 import com.nikworkspace.AnyShare.repository.SessionRepository;
 import com.nikworkspace.AnyShare.repository.UserRepository;
+import com.nikworkspace.AnyShare.service.SessionStatusBroadcaster;
+import com.nikworkspace.AnyShare.service.TransferIngestionService;
 import com.nikworkspace.AnyShare.service.interfaces.SessionService;
 import com.nikworkspace.AnyShare.util.CodeGenerator;
 import com.nikworkspace.AnyShare.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.WebSocketSession;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -30,6 +42,8 @@ public class SessionServiceImpl implements SessionService {
     private final UserRepository userRepository;
     private final CodeGenerator codeGenerator;
     private final JwtUtil jwtUtil;
+    private final SessionStatusBroadcaster statusBroadcaster;
+    private final TransferIngestionService transferIngestionService;
 
     // Keep in-memory for active peer connections
     private final ConcurrentHashMap<String, Session> activeSessions = new ConcurrentHashMap<>();
@@ -38,10 +52,17 @@ public class SessionServiceImpl implements SessionService {
     private static final int SESSION_EXPIRY_MINUTES = 5;
     private static final int MAX_PEERS = 2;
     private static final String WS_URL = "ws://localhost:8080/signal";
+    private static final long STATUS_STREAM_GRACE_MILLIS = 30_000;
 
     @Override
     @Transactional
     public SessionCreateResponse createSession(SignalMessageDTO.SessionCreateRequest request) {
+        return createSession(request, null);
+    }
+
+    @Override
+    @Transactional
+    public SessionCreateResponse createSession(SignalMessageDTO.SessionCreateRequest request, UUID creatorId) {
         log.info("Creating new session for device: {}", request.getDeviceType());
 
         String sessionId = UUID.randomUUID().toString();
@@ -50,13 +71,20 @@ public class SessionServiceImpl implements SessionService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiresAt = now.plusMinutes(SESSION_EXPIRY_MINUTES);
 
+        // Single-use join capability embedded in the QR code, lets a receiver
+        // skip the REST join and get admitted on the /signal handshake.
+        // Persisted so it survives a restart or a reload of the session.
+        String joinCapabilityId = UUID.randomUUID().toString();
+
         // Save to database
         SessionEntity entity = SessionEntity.builder()
                 .id(UUID.fromString(sessionId))
                 .roomCode(roomCode)
+                .creator(creatorId != null ? userRepository.getReferenceById(creatorId) : null)
                 .status(SessionStatus.WAITING)
                 .maxPeers(MAX_PEERS)
                 .expiresAt(expiresAt)
+                .joinCapabilityId(joinCapabilityId)
                 .build();
 
         sessionRepository.save(entity);
@@ -66,19 +94,35 @@ public class SessionServiceImpl implements SessionService {
                 .sessionId(sessionId)
                 .roomCode(roomCode)
                 .status(SessionStatus.WAITING)
+                .persistedStatus(SessionStatus.WAITING)
                 .createdAt(now)
                 .expiresAt(expiresAt)
                 .maxPeers(MAX_PEERS)
+                .creatorId(creatorId)
+                .joinCapabilityId(joinCapabilityId)
                 .build();
+        session.getTimeline().markFirst(SessionTimeline.Milestone.CREATED);
+
+        String joinToken = jwtUtil.generateJoinToken(sessionId, joinCapabilityId, expiresAt);
+
+        // Creator can join as SENDER right away, saving the separate join round trip
+        Peer sender = null;
+        String senderToken = null;
+        if (Boolean.TRUE.equals(request.getJoinAsSender())) {
+            sender = registerPeer(session, request.getDeviceType(), request.getUserAgent(), "SENDER");
+            senderToken = jwtUtil.generateToken(sender.getPeerId(), sessionId, sender.getRole());
+        }
 
         activeSessions.put(sessionId, session);
         roomCodeToSessionId.put(roomCode, sessionId);
 
-        log.info("Session created - ID: {}, Code: {}", sessionId, roomCode);
+        SessionLifecycleEvent.emit(SessionLifecycleEvent.CREATED, sessionId,
+                sender != null ? sender.getPeerId() : null, session.getPeersConnected());
+        log.info("Session created - ID: {}, Code: {}, sender joined: {}", sessionId, roomCode, sender != null);
 
         String qrCodePayload = String.format(
-                "{\"sessionId\":\"%s\",\"roomCode\":\"%s\",\"wsUrl\":\"%s\",\"expiresAt\":\"%s\"}",
-                sessionId, roomCode, WS_URL, formatDateTime(expiresAt)
+                "{\"sessionId\":\"%s\",\"roomCode\":\"%s\",\"wsUrl\":\"%s\",\"expiresAt\":\"%s\",\"joinToken\":\"%s\"}",
+                sessionId, roomCode, WS_URL, formatDateTime(expiresAt), joinToken
         );
 
         return SessionCreateResponse.builder()
@@ -88,6 +132,8 @@ public class SessionServiceImpl implements SessionService {
                 .wsUrl(WS_URL)
                 .expiresAt(formatDateTime(expiresAt))
                 .createdAt(formatDateTime(now))
+                .peerId(sender != null ? sender.getPeerId() : null)
+                .token(senderToken)
                 .build();
     }
 
@@ -95,20 +141,58 @@ public class SessionServiceImpl implements SessionService {
     public SessionInfoResponse getSessionInfo(String roomCode) {
         log.info("Fetching session info for roomCode: {}", roomCode);
 
+        return toSessionInfo(resolveSession(roomCode));
+    }
+
+    @Override
+    public String getSessionInfoEtag(String roomCode) {
+        // In-memory registry only: never touches the database
+        String sessionId = roomCodeToSessionId.get(roomCode);
+        Session session = sessionId != null ? activeSessions.get(sessionId) : null;
+
+        if (session == null || session.isExpired()) {
+            return null;
+        }
+        return SessionInfoResponse.etag(session.getSessionId(), session.getVersion());
+    }
+
+    @Override
+    public SseEmitter subscribeSessionInfo(String roomCode) {
+        log.info("Subscribing to session status for roomCode: {}", roomCode);
+
+        Session session = resolveSession(roomCode);
+
+        // Stream lives as long as the session, plus a little slack for the final EXPIRED event
+        long timeoutMillis = Duration.between(LocalDateTime.now(), session.getExpiresAt()).toMillis()
+                + STATUS_STREAM_GRACE_MILLIS;
+
+        return statusBroadcaster.subscribe(session.getSessionId(), toSessionInfo(session), timeoutMillis);
+    }
+
+    /**
+     * Find a live session by room code, loading it from the database if needed
+     *
+     * @throws SessionNotFoundException if no session has this code
+     * @throws SessionExpiredException if the session has expired
+     */
+    private Session resolveSession(String roomCode) {
         String sessionId = roomCodeToSessionId.get(roomCode);
 
         if (sessionId == null) {
-            SessionEntity entity = sessionRepository.findByRoomCode(roomCode)
+            SessionEntity entity = ReadWriteRoutingDataSource.findWithPrimaryFallback(
+                            () -> sessionRepository.findByRoomCode(roomCode))
                     .orElseThrow(() -> new SessionNotFoundException(
                             "Session with code " + roomCode + " does not exist or has expired"
                     ));
             sessionId = entity.getId().toString();
         }
 
+        String finalSessionId = sessionId;
         Session session = activeSessions.get(sessionId);
 
         if (session == null) {
-            SessionEntity entity = sessionRepository.findById(UUID.fromString(sessionId))
+            SessionEntity entity = ReadWriteRoutingDataSource.findWithPrimaryFallback(
+                            () -> sessionRepository.findById(UUID.fromString(finalSessionId)))
                     .orElseThrow(() -> new SessionNotFoundException(
                             "Session with code " + roomCode + " does not exist"
                     ));
@@ -119,26 +203,17 @@ public class SessionServiceImpl implements SessionService {
                 );
             }
 
-            session = convertToSession(entity);
-            activeSessions.put(sessionId, session);
-            roomCodeToSessionId.put(roomCode, sessionId);
+            session = loadedSession(entity);
         }
 
         if (session.isExpired()) {
-            cleanupSession(session);
+            expireSession(session);
             throw new SessionExpiredException(
                     "Session expired at " + formatDateTime(session.getExpiresAt())
             );
         }
 
-        return SessionInfoResponse.builder()
-                .sessionId(session.getSessionId())
-                .status(session.getStatus().name())
-                .peersConnected(session.getPeersConnected())
-                .maxPeers(session.getMaxPeers())
-                .canJoin(session.canJoin())
-                .expiresAt(formatDateTime(session.getExpiresAt()))
-                .build();
+        return session;
     }
 
     @Override
@@ -165,67 +240,20 @@ public class SessionServiceImpl implements SessionService {
                             "Session with code " + roomCode + " does not exist"
                     ));
 
-            session = convertToSession(entity);
-            activeSessions.put(sessionId, session);
-            roomCodeToSessionId.put(roomCode, sessionId);
+            session = loadedSession(entity);
         }
 
         if (session.isExpired()) {
-            cleanupSession(session);
+            expireSession(session);
             throw new SessionExpiredException(
                     "Session expired at " + formatDateTime(session.getExpiresAt())
             );
         }
 
-        // FIXED: Count only CONNECTED peers (those with active WebSocket)
-        long connectedPeers = session.getPeers().values().stream()
-                .filter(Peer::isConnected)
-                .count();
-
-        log.info("Session {} has {} connected peers (total registered: {})",
-                sessionId, connectedPeers, session.getPeers().size());
-
-        // FIXED: Check connected peers, not total registered peers
-        if (connectedPeers >= session.getMaxPeers()) {
-            throw new SessionFullException(
-                    "Session is full. Maximum " + session.getMaxPeers() + " peers allowed."
-            );
-        }
-
-        if (session.getStatus() != SessionStatus.WAITING && session.getStatus() != SessionStatus.CONNECTED) {
-            throw new InvalidSessionStateException(
-                    "Session not accepting connections. Status: " + session.getStatus()
-            );
-        }
-
-        String peerId = "peer-" + UUID.randomUUID().toString().substring(0, 8);
-
-        Peer peer = Peer.builder()
-                .peerId(peerId)
-                .sessionId(sessionId)
-                .deviceType(request.getDeviceType())
-                .userAgent(request.getUserAgent())
-                .joinedAt(LocalDateTime.now())
-                .build();
-
-        String role = session.getPeers().isEmpty() ? "SENDER" : "RECEIVER";
-        String token = jwtUtil.generateToken(peerId, sessionId, role);
-
-        session.getPeers().put(peerId, peer);
-
-        // Update status based on connected peers
-        if (connectedPeers + 1 >= session.getMaxPeers()) {
-            session.setStatus(SessionStatus.CONNECTED);
-
-            // Update in database
-            sessionRepository.findById(UUID.fromString(sessionId)).ifPresent(entity -> {
-                entity.setStatus(SessionStatus.CONNECTED);
-                sessionRepository.save(entity);
-            });
-        }
-
-        log.info("Peer {} joined session {} (connected: {}/{})",
-                peerId, sessionId, connectedPeers + 1, session.getMaxPeers());
+        Peer peer = admitPeer(session, request.getDeviceType(), request.getUserAgent(), null);
+        persistStatus(session);
+        String peerId = peer.getPeerId();
+        String token = jwtUtil.generateToken(peerId, sessionId, peer.getRole());
 
         return SessionJoinResponse.builder()
                 .sessionId(sessionId)
@@ -261,31 +289,331 @@ public class SessionServiceImpl implements SessionService {
             sessionRepository.save(entity);
         });
 
+        SessionLifecycleEvent.emit(SessionLifecycleEvent.CLOSED, sessionId, null, session.getPeersConnected());
         cleanupSession(session);
+        statusBroadcaster.complete(toSessionInfo(session));
 
         log.info("Session {} closed", sessionId);
     }
 
+    @Override
+    public void reportTransfer(String sessionId, String token, TransferReportRequest report) {
+        log.info("Transfer report for session {}: {} ({} bytes)",
+                sessionId, report.getFileName(), report.getFileSize());
+
+        Claims claims = jwtUtil.validateToken(token);
+
+        // Only peers of this session may report transfers for it
+        if (!"WEBSOCKET".equals(claims.get("type", String.class))
+                || !sessionId.equals(claims.get("sessionId", String.class))) {
+            throw new UnauthorizedException("Token is not valid for session " + sessionId);
+        }
+
+        recordTransfer(getOrLoadSession(sessionId), report);
+    }
+
+    /**
+     * Queue a completed transfer for batched persistence
+     * Sender is attributed to the session creator when they were logged in
+     */
+    public void recordTransfer(Session session, TransferReportRequest report) {
+        transferIngestionService.submit(UUID.fromString(session.getSessionId()), session.getCreatorId(), report);
+    }
+
+    /**
+     * Admit a receiver that presented the join capability from the QR code.
+     * The persisted capability is cleared by a conditional UPDATE, so it is consumed at most
+     * once even across restarts and reloads; if admission then fails (session full), the
+     * transaction rolls back and the QR code stays valid.
+     *
+     * @param sessionId    Session the capability was issued for
+     * @param capabilityId Capability ID (jti) from the join token
+     * @return The newly registered peer
+     */
+    @Transactional
+    public Peer admitWithJoinCapability(String sessionId, String capabilityId, String deviceType, String userAgent) {
+        Session session = getOrLoadSession(sessionId);
+
+        if (session.isExpired()) {
+            expireSession(session);
+            throw new SessionExpiredException(
+                    "Session expired at " + formatDateTime(session.getExpiresAt())
+            );
+        }
+
+        // Cheap in-memory check first; the database decides who gets it (outside the session lock)
+        if (capabilityId == null || !capabilityId.equals(session.getJoinCapabilityId())
+                || sessionRepository.consumeJoinCapability(UUID.fromString(sessionId), capabilityId) == 0) {
+            throw new UnauthorizedException("Join capability is invalid or has already been used");
+        }
+
+        Peer peer;
+        synchronized (session) {
+            peer = admitPeer(session, deviceType, userAgent, "RECEIVER");
+
+            // Single use: the QR code can't admit anyone else
+            session.setJoinCapabilityId(null);
+        }
+        persistStatus(session);
+        return peer;
+    }
+
+    /**
+     * Check capacity and state, then register a new peer.
+     * Synchronized on the session so concurrent joins can't exceed maxPeers.
+     * The caller writes a resulting status change with persistStatus once it holds no session lock.
+     *
+     * @param role Peer role, or null to derive it (first peer is SENDER)
+     */
+    private Peer admitPeer(Session session, String deviceType, String userAgent, String role) {
+        synchronized (session) {
+            // FIXED: Count only CONNECTED peers (those with active WebSocket)
+            long connectedPeers = session.getPeers().values().stream()
+                    .filter(Peer::isConnected)
+                    .count();
+
+            log.info("Session {} has {} connected peers (total registered: {})",
+                    session.getSessionId(), connectedPeers, session.getPeers().size());
+
+            // FIXED: Check connected peers, not total registered peers
+            if (connectedPeers >= session.getMaxPeers()) {
+                throw new SessionFullException(
+                        "Session is full. Maximum " + session.getMaxPeers() + " peers allowed."
+                );
+            }
+
+            if (session.getStatus() != SessionStatus.WAITING && session.getStatus() != SessionStatus.CONNECTED) {
+                throw new InvalidSessionStateException(
+                        "Session not accepting connections. Status: " + session.getStatus()
+                );
+            }
+
+            if (role == null) {
+                role = session.getPeers().isEmpty() ? "SENDER" : "RECEIVER";
+            }
+            Peer peer = registerPeer(session, deviceType, userAgent, role);
+            if ("RECEIVER".equals(role)) {
+                session.getTimeline().markFirst(SessionTimeline.Milestone.RECEIVER_JOINED);
+            }
+
+            refreshStatus(session);
+
+            SessionLifecycleEvent.emit(SessionLifecycleEvent.JOINED, session.getSessionId(),
+                    peer.getPeerId(), session.getPeersConnected());
+            log.info("Peer {} joined session {} (connected: {}/{})",
+                    peer.getPeerId(), session.getSessionId(), connectedPeers + 1, session.getMaxPeers());
+
+            publishStatus(session);
+            return peer;
+        }
+    }
+
+    /**
+     * Attach a peer's WebSocket, replacing any earlier one (reconnect)
+     * Synchronized on the session so concurrent connects can't exceed maxPeers.
+     *
+     * @return The peer, or null if it is no longer in the session
+     */
+    public Peer attachSocket(Session session, String peerId, WebSocketSession wsSession) {
+        synchronized (session) {
+            Peer peer = session.getPeers().get(peerId);
+            if (peer == null) {
+                return null;
+            }
+
+            long otherConnected = session.getPeers().values().stream()
+                    .filter(other -> other != peer && other.isConnected())
+                    .count();
+            if (otherConnected >= session.getMaxPeers()) {
+                throw new SessionFullException(
+                        "Session is full. Maximum " + session.getMaxPeers() + " peers allowed."
+                );
+            }
+
+            peer.setWsSession(wsSession);
+            return peer;
+        }
+    }
+
+    /**
+     * Remove a peer whose WebSocket closed, unless it has already reconnected on a newer one
+     *
+     * @param closed The socket that closed, or null to remove regardless
+     * @return The removed peer, or null if it was not in the session (or reconnected)
+     */
+    public Peer removePeer(Session session, String peerId, WebSocketSession closed) {
+        Peer removed = null;
+        synchronized (session) {
+            Peer peer = session.getPeers().get(peerId);
+            if (peer != null && (closed == null || peer.getWsSession() == null || peer.getWsSession() == closed)) {
+                removed = session.getPeers().remove(peerId);
+                session.bumpVersion();
+                refreshStatus(session);
+            }
+        }
+
+        if (removed != null) {
+            persistStatus(session);
+            publishStatus(session);
+        }
+        return removed;
+    }
+
+    /**
+     * Periodically expire sessions past their expiry time, so status
+     * watchers get the EXPIRED event even if nobody touches the session
+     */
+    @Scheduled(fixedDelayString = "${anyshare.session.expiry-sweep-ms:30000}")
+    @Transactional
+    public void expireStaleSessions() {
+        activeSessions.values().stream()
+                .filter(Session::isExpired)
+                .forEach(this::expireSession);
+
+        int updated = sessionRepository.markExpiredSessions(LocalDateTime.now());
+        if (updated > 0) {
+            log.info("Marked {} sessions as EXPIRED", updated);
+        }
+    }
+
+    /**
+     * Create a peer and add it to the session's peer map
+     */
+    private Peer registerPeer(Session session, String deviceType, String userAgent, String role) {
+        String peerId = "peer-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Peer peer = Peer.builder()
+                .peerId(peerId)
+                .sessionId(session.getSessionId())
+                .deviceType(deviceType)
+                .userAgent(userAgent)
+                .role(role)
+                .joinedAt(LocalDateTime.now())
+                .build();
+
+        session.getPeers().put(peerId, peer);
+        session.bumpVersion();
+        return peer;
+    }
+
+    /**
+     * Keep an open session's status in line with its peer count: CONNECTED when full, WAITING otherwise
+     * Callers hold the session lock; the database is updated afterwards by persistStatus.
+     */
+    private void refreshStatus(Session session) {
+        SessionStatus current = session.getStatus();
+        if (current != SessionStatus.WAITING && current != SessionStatus.CONNECTED) {
+            return;
+        }
+
+        session.setStatus(session.getPeers().size() >= session.getMaxPeers()
+                ? SessionStatus.CONNECTED
+                : SessionStatus.WAITING);
+    }
+
+    /**
+     * Write an open session's status to the database if it changed since the last write
+     * Called without the session lock, so joins and leaves don't wait on the database. Writes are
+     * serialized per session and always write the latest status, so the row ends up current even
+     * when two changes race.
+     */
+    private void persistStatus(Session session) {
+        synchronized (session.getStatusWriteLock()) {
+            SessionStatus status = session.getStatus();
+            if (status == session.getPersistedStatus()
+                    || (status != SessionStatus.WAITING && status != SessionStatus.CONNECTED)) {
+                return;
+            }
+            sessionRepository.updateOpenStatus(UUID.fromString(session.getSessionId()), status);
+            session.setPersistedStatus(status);
+        }
+    }
+
+    private void expireSession(Session session) {
+        session.setStatus(SessionStatus.EXPIRED);
+        SessionLifecycleEvent.emit(SessionLifecycleEvent.EXPIRED, session.getSessionId(), null,
+                session.getPeersConnected());
+        cleanupSession(session);
+        statusBroadcaster.complete(toSessionInfo(session));
+    }
+
+    private void publishStatus(Session session) {
+        // Skip building the response when nobody is watching
+        if (statusBroadcaster.hasSubscribers(session.getSessionId())) {
+            statusBroadcaster.publish(toSessionInfo(session));
+        }
+    }
+
+    private SessionInfoResponse toSessionInfo(Session session) {
+        return SessionInfoResponse.builder()
+                .sessionId(session.getSessionId())
+                .status(session.getStatus().name())
+                .peersConnected(session.getPeersConnected())
+                .maxPeers(session.getMaxPeers())
+                .canJoin(session.canJoin())
+                .expiresAt(formatDateTime(session.getExpiresAt()))
+                .version(session.getVersion())
+                .build();
+    }
+
     private void cleanupSession(Session session) {
         activeSessions.remove(session.getSessionId());
         roomCodeToSessionId.remove(session.getRoomCode());
     }
 
     private Session convertToSession(SessionEntity entity) {
-        return Session.builder()
+        Session session = Session.builder()
                 .sessionId(entity.getId().toString())
                 .roomCode(entity.getRoomCode())
                 .status(entity.getStatus())
+                .persistedStatus(entity.getStatus())
                 .createdAt(entity.getCreatedAt())
                 .expiresAt(entity.getExpiresAt())
                 .maxPeers(entity.getMaxPeers())
+                .creatorId(entity.getCreator() != null ? entity.getCreator().getId() : null)
+                .joinCapabilityId(entity.getJoinCapabilityId())
                 .build();
+
+        // Reloaded sessions keep their real creation time; later milestones are not persisted
+        if (entity.getCreatedAt() != null) {
+            session.getTimeline().markFirst(SessionTimeline.Milestone.CREATED,
+                    entity.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return session;
     }
 
     private String formatDateTime(LocalDateTime dateTime) {
         return dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
+    /**
+     * Number of sessions held in memory (for metrics)
+     */
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+
+    /**
+     * Number of in-memory sessions in the given status (for metrics, not on the request path)
+     */
+    public long countActiveSessions(SessionStatus status) {
+        return activeSessions.values().stream()
+                .filter(session -> session.getStatus() == status)
+                .count();
+    }
+
+    /**
+     * Find a session held in memory by session ID or room code, without touching the database
+     */
+    public Optional<Session> findActiveSession(String sessionIdOrRoomCode) {
+        Session session = activeSessions.get(sessionIdOrRoomCode);
+        if (session == null) {
+            String sessionId = roomCodeToSessionId.get(sessionIdOrRoomCode);
+            session = sessionId != null ? activeSessions.get(sessionId) : null;
+        }
+        return Optional.ofNullable(session);
+    }
+
     public Session getOrLoadSession(String sessionId) {
         // Check in memory first
         Session session = activeSessions.get(sessionId);
@@ -293,14 +621,25 @@ public class SessionServiceImpl implements SessionService {
         if (session == null) {
             log.info("Session not found in memory – loading from database: {}", sessionId);
 
-            SessionEntity entity = sessionRepository.findById(UUID.fromString(sessionId))
+            // Replica first; a session created moments ago may only be on the primary yet
+            SessionEntity entity = ReadWriteRoutingDataSource.findWithPrimaryFallback(
+                            () -> sessionRepository.findById(UUID.fromString(sessionId)))
                     .orElseThrow(() -> new SessionNotFoundException("Session " + sessionId + " not found"));
 
-            session = convertToSession(entity);
-            activeSessions.put(sessionId, session);
-            roomCodeToSessionId.put(entity.getRoomCode(), sessionId);
+            session = loadedSession(entity);
         }
 
         return session;
     }
+
+    /**
+     * Hold a session loaded from the database in memory
+     * If another thread loaded it first, its instance wins so every caller shares one set of peers.
+     */
+    private Session loadedSession(SessionEntity entity) {
+        Session loaded = convertToSession(entity);
+        Session existing = activeSessions.putIfAbsent(loaded.getSessionId(), loaded);
+        roomCodeToSessionId.put(loaded.getRoomCode(), loaded.getSessionId());
+        return existing != null ? existing : loaded;
+    }
 }
\ No newline at end of file
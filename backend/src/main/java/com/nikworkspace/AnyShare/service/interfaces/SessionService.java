@@ -1,13 +1,24 @@
 package com.nikworkspace.AnyShare.service.interfaces;
 
 import com.nikworkspace.AnyShare.dto.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
 
 public interface SessionService {
     SessionCreateResponse createSession(SignalMessageDTO.SessionCreateRequest createRequest);
 
+    SessionCreateResponse createSession(SignalMessageDTO.SessionCreateRequest createRequest, UUID creatorId);
+
     SessionInfoResponse getSessionInfo(String roomCode);
 
+    String getSessionInfoEtag(String roomCode);
+
+    SseEmitter subscribeSessionInfo(String roomCode);
+
      SessionJoinResponse joinSession(String roomCode, JoinSessionRequest request);
 
     void closeSession(String sessionId, String token);
+
+    void reportTransfer(String sessionId, String token, TransferReportRequest report);
 }
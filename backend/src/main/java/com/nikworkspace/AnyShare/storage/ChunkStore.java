@@ -0,0 +1,164 @@
+package com.nikworkspace.AnyShare.storage;
+
+import com.nikworkspace.AnyShare.entity.StoredChunk;
+import com.nikworkspace.AnyShare.repository.StoredChunkOwnerRepository;
+import com.nikworkspace.AnyShare.repository.StoredChunkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for the chunks of stored files, deduplicated across all transfers
+ * A chunk lives at chunks/{first two hex digits}/{sha256} and is written once, however many
+ * files contain it. Only owners that have sent a chunk's bytes can claim it by hash alone. Each file position holding the chunk counts as one reference; chunks nobody
+ * references any more (their sessions expired) are deleted by a periodic collection.
+ * Taking a reference, publishing and deleting a chunk are serialized per hash (striped locks),
+ * so a chunk can't be collected while a new upload is claiming or re-creating it. Releasing only
+ * lowers the count (deletion re-checks it under the lock), so it can run inside a caller's
+ * transaction without taking a lock.
+ */
+@Component
+@Slf4j
+public class ChunkStore {
+
+    private static final int LOCK_STRIPES = 64;
+    // Temp files of writers abandoned by a crash or restart
+    private static final Duration TEMP_MAX_AGE = Duration.ofDays(1);
+
+    private final StoredChunkRepository storedChunkRepository;
+    private final StoredChunkOwnerRepository storedChunkOwnerRepository;
+    private final Path chunkDir;
+    private final Path tempDir;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ChunkStore(StoredChunkRepository storedChunkRepository,
+                      StoredChunkOwnerRepository storedChunkOwnerRepository,
+                      @Value("${anyshare.storage.dir:storage}") String storageDir) {
+        this.storedChunkRepository = storedChunkRepository;
+        this.storedChunkOwnerRepository = storedChunkOwnerRepository;
+        this.chunkDir = Path.of(storageDir).resolve("chunks");
+        this.tempDir = chunkDir.resolve("tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Start receiving a chunk into a temp file
+     */
+    public ChunkWriter newWriter() throws IOException {
+        Files.createDirectories(tempDir);
+        return new ChunkWriter(tempDir.resolve(UUID.randomUUID().toString()));
+    }
+
+    public Path path(String hash) {
+        return chunkDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Publish a finished chunk under its hash and take a reference to it
+     * If the store already has the content, the new copy is dropped. Either way the owner has
+     * now shown it holds the bytes, so it may claim the chunk later.
+     */
+    public void commit(ChunkWriter writer, String hash, UUID owner) throws IOException {
+        Path target = path(hash);
+        synchronized (lock(hash)) {
+            if (Files.exists(target)) {
+                writer.discard();
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(writer.getTemp(), target, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            if (storedChunkRepository.incrementRefCount(hash) == 0) {
+                storedChunkRepository.save(StoredChunk.builder()
+                        .hash(hash)
+                        .size(writer.size())
+                        .refCount(1)
+                        .build());
+            }
+            storedChunkOwnerRepository.addOwner(hash, owner);
+        }
+    }
+
+    /**
+     * Take a reference to a chunk the client says it would upload, if this owner uploaded it before
+     * Chunks only other owners sent look missing, so the answer says nothing about their content.
+     *
+     * @return true if the chunk is stored (and now referenced), false if it has to be uploaded
+     */
+    public boolean claim(String hash, UUID owner) {
+        synchronized (lock(hash)) {
+            return storedChunkOwnerRepository.existsByHashAndOwnerId(hash, owner)
+                    && Files.exists(path(hash))
+                    && storedChunkRepository.incrementRefCount(hash) > 0;
+        }
+    }
+
+    /**
+     * Drop one reference; the chunk is deleted by the next collection once none are left
+     */
+    public void release(String hash) {
+        storedChunkRepository.decrementRefCount(hash);
+    }
+
+    /**
+     * Delete chunks that no stored file references, a bounded batch per run
+     */
+    @Scheduled(initialDelayString = "${anyshare.storage.sweep-ms:60000}", fixedDelayString = "${anyshare.storage.sweep-ms:60000}")
+    public void collectGarbage() {
+        List<StoredChunk> unreferenced = storedChunkRepository.findTop500ByRefCount(0);
+        long freed = 0;
+        for (StoredChunk chunk : unreferenced) {
+            synchronized (lock(chunk.getHash())) {
+                if (storedChunkRepository.deleteIfUnreferenced(chunk.getHash()) == 0) {
+                    continue;
+                }
+                storedChunkOwnerRepository.deleteOwners(chunk.getHash());
+                try {
+                    Files.deleteIfExists(path(chunk.getHash()));
+                    freed += chunk.getSize();
+                } catch (IOException e) {
+                    log.warn("Could not delete chunk {}: {}", chunk.getHash(), e.getMessage());
+                }
+            }
+        }
+
+        if (!unreferenced.isEmpty()) {
+            log.info("Collected {} unreferenced chunks ({} bytes)", unreferenced.size(), freed);
+        }
+        deleteStaleTempFiles();
+    }
+
+    private void deleteStaleTempFiles() {
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(TEMP_MAX_AGE));
+        try (Stream<Path> temps = Files.list(tempDir)) {
+            for (Path temp : (Iterable<Path>) temps::iterator) {
+                if (Files.getLastModifiedTime(temp).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up chunk temp files: {}", e.getMessage());
+        }
+    }
+
+    private Object lock(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,106 @@
+package com.nikworkspace.AnyShare.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * One chunk being received: bytes go to a temp file and through SHA-256 in the same pass,
+ * so the chunk's address is known the moment its last byte lands, without reading it back
+ * Can be filled over several requests (an interrupted sequential upload keeps its writer).
+ */
+@Slf4j
+public class ChunkWriter {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path temp;
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private long size;
+    private String hash;
+
+    ChunkWriter(Path temp) throws IOException {
+        this.temp = temp;
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            channel.close();
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    Path getTemp() {
+        return temp;
+    }
+
+    /**
+     * Copy up to max bytes of the body into the chunk
+     * A body that breaks off (client went away) is not an error: what arrived is kept.
+     *
+     * @return Bytes copied (less than max if the body ended or broke off early)
+     */
+    public long write(InputStream body, long max) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+        long copied = 0;
+        while (copied < max) {
+            int read;
+            try {
+                read = body.read(buffer.array(), 0, (int) Math.min(buffer.capacity(), max - copied));
+            } catch (IOException e) {
+                log.info("Upload body broke off after {} bytes of a chunk: {}", size + copied, e.getMessage());
+                break;
+            }
+            if (read < 0) {
+                break;
+            }
+
+            digest.update(buffer.array(), 0, read);
+            buffer.clear().limit(read);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            copied += read;
+        }
+        size += copied;
+        return copied;
+    }
+
+    /**
+     * Flush the chunk to disk and return its SHA-256 (lowercase hex)
+     */
+    public String finish() throws IOException {
+        if (hash == null) {
+            channel.force(false);
+            channel.close();
+            hash = HexFormat.of().formatHex(digest.digest());
+        }
+        return hash;
+    }
+
+    /**
+     * Throw the chunk away (duplicate, corrupt or abandoned)
+     */
+    public void discard() {
+        try {
+            channel.close();
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Could not delete chunk temp file {}: {}", temp, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.nikworkspace.AnyShare.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Which fixed-size chunks of an upload have arrived, and their SHA-256
+ * Every chunk is stored on its own, so chunks can be uploaded in any order over parallel
+ * connections. A bit is set only once its chunk is stored; chunks being written are tracked
+ * separately so the same chunk isn't uploaded twice at once. The hash of a missing chunk is the
+ * one the client declared in its manifest (if any), checked when the chunk arrives. A sequential
+ * (tus PATCH) stream that stops mid-chunk leaves a partial writer, kept in memory only.
+ */
+public class ChunkedUpload {
+
+    public static final int HASH_BYTES = 32;
+
+    private final long fileSize;
+    private final int chunkSize;
+    private final int chunkCount;
+
+    private final BitSet received;
+    private final byte[] hashes;
+    private final BitSet inFlight = new BitSet();
+    private boolean sequentialInFlight;
+    private boolean finalizing;
+
+    // First missing chunk, partly written by an interrupted sequential stream
+    private int partialChunk = -1;
+    private ChunkWriter partial;
+
+    public ChunkedUpload(long fileSize, int chunkSize, byte[] bitmap, byte[] hashes) {
+        this.fileSize = fileSize;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+        this.received = bitmap != null ? BitSet.valueOf(bitmap) : new BitSet(chunkCount);
+        this.hashes = hashes != null ? hashes : new byte[chunkCount * HASH_BYTES];
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public long chunkStart(int index) {
+        return (long) index * chunkSize;
+    }
+
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, fileSize - chunkStart(index));
+    }
+
+    /**
+     * Reserve a chunk for writing
+     *
+     * @return false if the chunk already arrived or is being written right now
+     */
+    public synchronized boolean tryBegin(int index) {
+        if (received.get(index) || inFlight.get(index)) {
+            return false;
+        }
+        inFlight.set(index);
+        return true;
+    }
+
+    /**
+     * Release a chunk whose write didn't finish
+     */
+    public synchronized void abort(int index) {
+        inFlight.clear(index);
+    }
+
+    public synchronized boolean isReceived(int index) {
+        return received.get(index);
+    }
+
+    /**
+     * Hash the chunk must have: its actual hash once received, else the declared one (null if none)
+     */
+    public synchronized String hash(int index) {
+        int from = index * HASH_BYTES;
+        for (int i = from; i < from + HASH_BYTES; i++) {
+            if (hashes[i] != 0) {
+                return HexFormat.of().formatHex(hashes, from, from + HASH_BYTES);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record the hash the client declared for a chunk it is yet to upload
+     */
+    public synchronized void expect(int index, String hash) {
+        if (!received.get(index)) {
+            System.arraycopy(HexFormat.of().parseHex(hash), 0, hashes, index * HASH_BYTES, HASH_BYTES);
+        }
+    }
+
+    /**
+     * Mark a chunk stored under its hash
+     */
+    public synchronized void markReceived(int index, String hash) {
+        System.arraycopy(HexFormat.of().parseHex(hash), 0, hashes, index * HASH_BYTES, HASH_BYTES);
+        inFlight.clear(index);
+        received.set(index);
+    }
+
+    public synchronized byte[] bitmap() {
+        return received.toByteArray();
+    }
+
+    public synchronized byte[] hashes() {
+        return Arrays.copyOf(hashes, hashes.length);
+    }
+
+    public synchronized boolean tryBeginSequential() {
+        if (sequentialInFlight) {
+            return false;
+        }
+        sequentialInFlight = true;
+        return true;
+    }
+
+    public synchronized void endSequential() {
+        sequentialInFlight = false;
+    }
+
+    /**
+     * Hand the partial writer of a chunk to the sequential stream continuing it
+     *
+     * @return The writer, or null if the chunk has none
+     */
+    public synchronized ChunkWriter takePartial(int index) {
+        if (partialChunk != index) {
+            return null;
+        }
+        ChunkWriter writer = partial;
+        partialChunk = -1;
+        partial = null;
+        return writer;
+    }
+
+    /**
+     * Keep a chunk the sequential stream stopped in the middle of
+     *
+     * @return A writer this one replaces, for the caller to discard
+     */
+    public synchronized ChunkWriter keepPartial(int index, ChunkWriter writer) {
+        ChunkWriter replaced = partial;
+        partialChunk = index;
+        partial = writer;
+        return replaced;
+    }
+
+    /**
+     * Take away the partial writer of a chunk that arrived by other means (or of any chunk if -1)
+     */
+    public synchronized ChunkWriter dropPartial(int index) {
+        return index == -1 || index == partialChunk ? takePartial(partialChunk) : null;
+    }
+
+    /**
+     * Where a sequential upload continues: the end of the received prefix plus any partial chunk
+     */
+    public synchronized long offset() {
+        int next = received.nextClearBit(0);
+        if (next >= chunkCount) {
+            return fileSize;
+        }
+        return chunkStart(next) + (partialChunk == next ? partial.size() : 0);
+    }
+
+    public synchronized long receivedBytes() {
+        long bytes = 0;
+        for (int index = received.nextSetBit(0); index >= 0 && index < chunkCount; index = received.nextSetBit(index + 1)) {
+            bytes += chunkLength(index);
+        }
+        return bytes + (partial != null ? partial.size() : 0);
+    }
+
+    public synchronized List<Integer> missingChunks() {
+        List<Integer> missing = new ArrayList<>();
+        for (int index = received.nextClearBit(0); index < chunkCount; index = received.nextClearBit(index + 1)) {
+            missing.add(index);
+        }
+        return missing;
+    }
+
+    /**
+     * Hashes of the chunks stored so far, one per reference the upload holds
+     */
+    public synchronized List<String> receivedHashes() {
+        List<String> stored = new ArrayList<>(received.cardinality());
+        for (int index = received.nextSetBit(0); index >= 0 && index < chunkCount; index = received.nextSetBit(index + 1)) {
+            stored.add(hash(index));
+        }
+        return stored;
+    }
+
+    /**
+     * Claim the right to finalize once every chunk is in (true for exactly one caller)
+     */
+    public synchronized boolean claimFinalize() {
+        if (finalizing || received.cardinality() < chunkCount) {
+            return false;
+        }
+        finalizing = true;
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.nikworkspace.AnyShare.storage;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * SHA-256 hash tree over the chunks of a stored file (the RFC 6962 Merkle Tree Hash)
+ * The tree's inputs are the chunk hashes (computed while the chunks streamed in, see ChunkWriter).
+ * Leaf i is SHA-256(0x00 || chunkHash[i]) and each parent is SHA-256(0x01 || left || right), so a
+ * leaf can never pass for an interior node. An odd node at the end of a level moves up unchanged,
+ * which gives the same shape as RFC 6962's split at the largest power of two. The empty file's root
+ * is SHA-256 of nothing. Large levels are hashed in parallel.
+ */
+public final class MerkleTree {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+    // Below this many nodes per level, forking costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private MerkleTree() {
+    }
+
+    /**
+     * Every level of the tree, leaves first, root level (one node) last (just the root if empty)
+     *
+     * @param chunkHashes SHA-256 of each chunk, ChunkedUpload.HASH_BYTES each, concatenated in order
+     */
+    public static List<byte[][]> levels(byte[] chunkHashes) {
+        int count = chunkHashes.length / ChunkedUpload.HASH_BYTES;
+        List<byte[][]> levels = new ArrayList<>();
+        if (count == 0) {
+            levels.add(new byte[][]{SHA256.get().digest()});
+            return levels;
+        }
+
+        byte[][] level = leaves(chunkHashes, count);
+        levels.add(level);
+        while (level.length > 1) {
+            level = parents(level);
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    public static byte[] root(byte[] chunkHashes) {
+        List<byte[][]> levels = levels(chunkHashes);
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    private static byte[][] leaves(byte[] chunkHashes, int count) {
+        byte[][] leaves = new byte[count][];
+        IntStream indexes = IntStream.range(0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            MessageDigest digest = SHA256.get();
+            digest.update(LEAF_PREFIX);
+            digest.update(chunkHashes, i * ChunkedUpload.HASH_BYTES, ChunkedUpload.HASH_BYTES);
+            leaves[i] = digest.digest();
+        });
+        return leaves;
+    }
+
+    private static byte[][] parents(byte[][] children) {
+        int pairs = children.length / 2;
+        byte[][] parents = new byte[(children.length + 1) / 2][];
+
+        IntStream indexes = IntStream.range(0, pairs);
+        if (pairs >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            MessageDigest digest = SHA256.get();
+            digest.update(NODE_PREFIX);
+            digest.update(children[2 * i]);
+            digest.update(children[2 * i + 1]);
+            parents[i] = digest.digest();
+        });
+
+        if (children.length % 2 == 1) {
+            parents[pairs] = children[children.length - 1];
+        }
+        return parents;
+    }
+}
@@ -0,0 +1,234 @@
+package com.nikworkspace.AnyShare.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a stored file, kept as a sequence of chunk files, to an HTTP response without copying it through the heap
+ * Supports single and multiple byte ranges (206, multipart/byteranges), If-Range and
+ * If-None-Match against a strong ETag. A range within one chunk (a file of one chunk, or a
+ * chunk-aligned range, the natural unit for parallel downloads) is handed to Tomcat's sendfile,
+ * which transfers it from the page cache to the socket with FileChannel.transferTo after the
+ * request thread is released. Anything else (several chunks, TLS, small bodies, multipart) is
+ * written chunk by chunk with FileChannel.transferTo.
+ */
+@Component
+@Slf4j
+public class RangeFileWriter {
+
+    // Tomcat's sendfile request attributes (see org.apache.coyote.Constants / DefaultServlet)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    private final boolean sendfileEnabled;
+    private final long sendfileMinBytes;
+
+    public RangeFileWriter(@Value("${anyshare.storage.sendfile.enabled:true}") boolean sendfileEnabled,
+                           @Value("${anyshare.storage.sendfile.min-bytes:49152}") long sendfileMinBytes) {
+        this.sendfileEnabled = sendfileEnabled;
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    /**
+     * Strong ETag of a stored file: completed files never change, so ID and size identify the bytes
+     */
+    public static String etag(UUID fileId, long size) {
+        return "\"" + fileId + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * Answer a GET for the file, honoring Range, If-Range and If-None-Match
+     *
+     * @param chunks Chunk files in order
+     * @param chunkSize Size of every chunk but the last
+     * @param contentType Media type of the file
+     * @param contentDisposition Content-Disposition header value
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, List<Path> chunks, long chunkSize,
+                      long length, String etag, String contentType, String contentDisposition) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range (or a date, which can't match a strong ETag) means: send the whole file
+        if (rangeHeader == null || (ifRange != null && !ifRange.equals(etag))) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType);
+            transfer(request, response, chunks, chunkSize, 0, length);
+            return;
+        }
+
+        List<long[]> ranges = satisfiableRanges(rangeHeader, length);
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            transfer(request, response, chunks, chunkSize, range[0], range[1] - range[0] + 1);
+        } else {
+            writeMultipart(response, chunks, chunkSize, length, contentType, ranges);
+        }
+    }
+
+    /**
+     * Send one contiguous region, through sendfile when it lies in a single chunk and Tomcat offers it
+     */
+    private void transfer(HttpServletRequest request, HttpServletResponse response, List<Path> chunks, long chunkSize,
+                          long start, long count) throws IOException {
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+
+        int chunk = (int) (start / chunkSize);
+        boolean singleChunk = chunk == (int) ((start + count - 1) / chunkSize);
+        if (singleChunk && sendfileEnabled && count >= sendfileMinBytes
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            long offset = start - chunk * chunkSize;
+            request.setAttribute(SENDFILE_FILENAME, chunks.get(chunk).toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, offset);
+            request.setAttribute(SENDFILE_END, offset + count);
+            return;
+        }
+
+        copy(chunks, chunkSize, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * multipart/byteranges body, Content-Length computed up front so clients see progress
+     */
+    private void writeMultipart(HttpServletResponse response, List<Path> chunks, long chunkSize, long length,
+                                String contentType, List<long[]> ranges) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+
+        long contentLength = closing.length;
+        for (long[] range : ranges) {
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + CRLF
+                    + CRLF).getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range[1] - range[0] + 1;
+        }
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            copy(chunks, chunkSize, range[0], range[1] - range[0] + 1, channel);
+        }
+        out.write(closing);
+    }
+
+    /**
+     * Copy [start, start + count) of the file, chunk by chunk
+     */
+    private void copy(List<Path> chunks, long chunkSize, long start, long count, WritableByteChannel target) throws IOException {
+        long end = start + count;
+        for (int chunk = (int) (start / chunkSize); start < end; chunk++) {
+            long chunkStart = chunk * chunkSize;
+            long position = start - chunkStart;
+            long chunkEnd = Math.min(end, chunkStart + chunkSize) - chunkStart;
+            try (FileChannel file = FileChannel.open(chunks.get(chunk), StandardOpenOption.READ)) {
+                while (position < chunkEnd) {
+                    long written = file.transferTo(position, chunkEnd - position, target);
+                    if (written <= 0) {
+                        // Chunk got shorter than its recorded size (deleted or truncated underneath us)
+                        throw new EOFException("Chunk " + chunk + " ended at " + position + " of " + chunkEnd);
+                    }
+                    position += written;
+                }
+            }
+            start = chunkStart + chunkEnd;
+        }
+    }
+
+    /**
+     * Parse a Range header into [first, last] pairs, dropping ranges that start past the end
+     * A malformed header, or ranges adding up to more than the file, gets 416 like Spring's own
+     * resource handling (guards against many-overlapping-ranges amplification).
+     */
+    private List<long[]> satisfiableRanges(String header, long length) {
+        List<HttpRange> parsed;
+        try {
+            parsed = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid Range header '{}': {}", header, e.getMessage());
+            return List.of();
+        }
+
+        List<long[]> ranges = new ArrayList<>(parsed.size());
+        long total = 0;
+        for (HttpRange range : parsed) {
+            long first = range.getRangeStart(length);
+            long last = range.getRangeEnd(length);
+            // Unsatisfiable on its own (starts past the end), the others may still be served
+            if (first < length && first <= last) {
+                ranges.add(new long[]{first, last});
+                total += last - first + 1;
+            }
+        }
+        return total > length ? List.of() : ranges;
+    }
+
+    private String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,223 @@
+package com.nikworkspace.AnyShare.trace;
+
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in recorder of anonymized signaling traffic for replay (anyshare.trace.enabled)
+ * Records carry timing, a keyed hash of the session ID, peer role, message type and size;
+ * no IDs, room codes, tokens or payload content. Events go through a bounded queue to a
+ * single writer thread and are dropped, never blocking a request, when the queue is full.
+ */
+@Component
+@Slf4j
+public class SignalingTraceRecorder {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SessionServiceImpl sessionService;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxFileBytes;
+    private final BlockingQueue<TraceEvent> queue;
+    private final LongAdder dropped = new LongAdder();
+
+    // Per-recording key for session refs, never written anywhere
+    private final long key0;
+    private final long key1;
+
+    private final long baseNanos = System.nanoTime();
+    private final long baseEpochMillis = System.currentTimeMillis();
+
+    private volatile boolean running;
+    private Thread writerThread;
+    private int fileSequence;
+
+    public SignalingTraceRecorder(SessionServiceImpl sessionService,
+                                  @Value("${anyshare.trace.enabled:false}") boolean enabled,
+                                  @Value("${anyshare.trace.dir:traces}") String directory,
+                                  @Value("${anyshare.trace.max-file-bytes:268435456}") long maxFileBytes,
+                                  @Value("${anyshare.trace.queue-capacity:65536}") int queueCapacity) {
+        this.sessionService = sessionService;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxFileBytes = maxFileBytes;
+        this.queue = enabled ? new ArrayBlockingQueue<>(queueCapacity) : null;
+
+        SecureRandom random = new SecureRandom();
+        this.key0 = random.nextLong();
+        this.key1 = random.nextLong();
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        running = true;
+        TraceWriter writer = openWriter();
+        writerThread = Thread.ofPlatform().name("signaling-trace-writer").daemon().start(() -> writeLoop(writer));
+        log.info("Recording signaling traces to {}", directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (dropped.sum() > 0) {
+            log.warn("Signaling trace dropped {} events (queue full)", dropped.sum());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void sessionCreated(String sessionId, boolean senderJoined) {
+        if (enabled) {
+            record(TraceEvent.Kind.SESSION_CREATED, sessionId, TraceFormat.ROLE_UNKNOWN, 0, 0,
+                    senderJoined ? TraceFormat.FLAG_SENDER_JOINED : 0);
+        }
+    }
+
+    /**
+     * Info lookups (including 304 revalidations) for sessions this instance knows about
+     */
+    public void sessionInfo(String roomCode) {
+        if (enabled) {
+            sessionService.findActiveSession(roomCode).ifPresent(session ->
+                    record(TraceEvent.Kind.SESSION_INFO, session.getSessionId(), TraceFormat.ROLE_UNKNOWN, 0, 0, 0));
+        }
+    }
+
+    public void sessionJoined(String sessionId) {
+        if (enabled) {
+            record(TraceEvent.Kind.SESSION_JOINED, sessionId, TraceFormat.ROLE_UNKNOWN, 0, 0, 0);
+        }
+    }
+
+    public void sessionClosed(String sessionId) {
+        if (enabled) {
+            record(TraceEvent.Kind.SESSION_CLOSED, sessionId, TraceFormat.ROLE_UNKNOWN, 0, 0, 0);
+        }
+    }
+
+    public void connected(String sessionId, String role, boolean viaJoinCapability) {
+        if (enabled) {
+            record(TraceEvent.Kind.WS_CONNECTED, sessionId, TraceFormat.roleCode(role), 0, 0,
+                    viaJoinCapability ? TraceFormat.FLAG_JOIN_CAPABILITY : 0);
+        }
+    }
+
+    public void disconnected(String sessionId, String role, int closeCode) {
+        if (enabled) {
+            record(TraceEvent.Kind.WS_DISCONNECTED, sessionId, TraceFormat.roleCode(role), 0, closeCode, 0);
+        }
+    }
+
+    public void message(String sessionId, String role, String type, int size, boolean targeted) {
+        if (enabled) {
+            record(TraceEvent.Kind.MESSAGE, sessionId, TraceFormat.roleCode(role), TraceFormat.messageTypeCode(type),
+                    size, targeted ? TraceFormat.FLAG_TARGETED : 0);
+        }
+    }
+
+    private void record(TraceEvent.Kind kind, String sessionId, int role, int messageType, int value, int flags) {
+        long timeMicros = (System.nanoTime() - baseNanos) / 1_000;
+        TraceEvent event = new TraceEvent(kind, timeMicros, sessionRef(sessionId), role, messageType, value, flags);
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Keyed hash of the session ID: stable within this recording, not linkable to the real ID
+     */
+    private long sessionRef(String sessionId) {
+        long high;
+        long low;
+        try {
+            UUID id = UUID.fromString(sessionId);
+            high = id.getMostSignificantBits();
+            low = id.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            high = sessionId.hashCode();
+            low = sessionId.length();
+        }
+        return mix(high ^ key0) ^ Long.rotateLeft(mix(low ^ key1), 32);
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private void writeLoop(TraceWriter initialWriter) {
+        TraceWriter writer = initialWriter;
+        List<TraceEvent> batch = new ArrayList<>(1024);
+        try {
+            while (running || !queue.isEmpty()) {
+                TraceEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    writer.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 1023);
+                for (TraceEvent event : batch) {
+                    writer.write(event);
+                }
+                batch.clear();
+
+                if (writer.size() >= maxFileBytes) {
+                    writer.close();
+                    writer = openWriter();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Signaling trace writer failed, recording stopped: {}", e.getMessage());
+        } finally {
+            running = false;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Could not close signaling trace: {}", e.getMessage());
+            }
+        }
+    }
+
+    private TraceWriter openWriter() throws IOException {
+        // Names sort in recording order, which is the order the replayer reads them in
+        String name = String.format("signaling-%s-%03d.trace", LocalDateTime.now().format(FILE_TIMESTAMP), fileSequence++);
+        return new TraceWriter(directory.resolve(name), baseEpochMillis);
+    }
+}
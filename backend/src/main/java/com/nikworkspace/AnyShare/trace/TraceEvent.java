@@ -0,0 +1,24 @@
+package com.nikworkspace.AnyShare.trace;
+
+/**
+ * One anonymized signaling trace record
+ *
+ * @param kind What happened
+ * @param timeMicros Microseconds since the recorder's base time
+ * @param sessionRef Keyed hash of the session ID, stable within one recording
+ * @param role TraceFormat.ROLE_* of the peer involved, if any
+ * @param messageType TraceFormat message type code (MESSAGE only)
+ * @param value Message size in characters (MESSAGE) or close code (WS_DISCONNECTED)
+ * @param flags Kind-specific TraceFormat.FLAG_* bits
+ */
+public record TraceEvent(Kind kind, long timeMicros, long sessionRef, int role, int messageType, int value,
+                         int flags) {
+
+    public enum Kind {
+        SESSION_CREATED, SESSION_INFO, SESSION_JOINED, SESSION_CLOSED, WS_CONNECTED, WS_DISCONNECTED, MESSAGE
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nikworkspace.AnyShare.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Binary layout of signaling traces
+ * Header: magic, version byte, base epoch millis.
+ * Record: kind byte, zigzag varint time delta (micros) from the previous record, 8-byte session ref,
+ * then per kind: CREATED flags | CONNECTED role, flags | DISCONNECTED role, varint close code |
+ * MESSAGE role, type code, varint size, flags. INFO, JOINED and CLOSED carry nothing more.
+ */
+public final class TraceFormat {
+
+    static final int MAGIC = 0x41535452; // "ASTR"
+    static final int VERSION = 1;
+
+    public static final int ROLE_UNKNOWN = 0;
+    public static final int ROLE_SENDER = 1;
+    public static final int ROLE_RECEIVER = 2;
+
+    // SESSION_CREATED: creator joined as sender in the same call
+    public static final int FLAG_SENDER_JOINED = 1;
+    // WS_CONNECTED: admitted with the QR join capability
+    public static final int FLAG_JOIN_CAPABILITY = 1;
+    // MESSAGE: addressed to a specific peer instead of broadcast
+    public static final int FLAG_TARGETED = 1;
+
+    public static final List<String> MESSAGE_TYPES = List.of(
+            "OFFER", "ANSWER", "ICE_CANDIDATE",
+            "PEER_JOINED", "PEER_DISCONNECTED", "SESSION_JOINED",
+            "FILE_METADATA", "FILE_COMPLETE", "TRANSFER_COMPLETE", "CONNECTED", "ERROR"
+    );
+    public static final int OTHER_MESSAGE_TYPE = 255;
+
+    private TraceFormat() {
+    }
+
+    public static int roleCode(String role) {
+        if ("SENDER".equals(role)) {
+            return ROLE_SENDER;
+        }
+        return "RECEIVER".equals(role) ? ROLE_RECEIVER : ROLE_UNKNOWN;
+    }
+
+    public static int messageTypeCode(String type) {
+        int index = type != null ? MESSAGE_TYPES.indexOf(type) : -1;
+        return index >= 0 ? index : OTHER_MESSAGE_TYPE;
+    }
+
+    /**
+     * @return The message type, or "OTHER" for types outside the table
+     */
+    public static String messageTypeName(int code) {
+        return code < MESSAGE_TYPES.size() ? MESSAGE_TYPES.get(code) : "OTHER";
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,85 @@
+package com.nikworkspace.AnyShare.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sequential reader for trace files written by TraceWriter
+ */
+public final class TraceReader implements Closeable {
+
+    private static final TraceEvent.Kind[] KINDS = TraceEvent.Kind.values();
+
+    private final DataInputStream in;
+    private final long baseEpochMillis;
+    private long lastMicros;
+
+    public TraceReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        if (in.readInt() != TraceFormat.MAGIC || in.readByte() != TraceFormat.VERSION) {
+            in.close();
+            throw new IOException("Not a signaling trace: " + file);
+        }
+        this.baseEpochMillis = in.readLong();
+    }
+
+    public long getBaseEpochMillis() {
+        return baseEpochMillis;
+    }
+
+    /**
+     * @return The next record, or null at the end (a record cut off by a crash counts as the end)
+     */
+    public TraceEvent next() throws IOException {
+        int kindCode = in.read();
+        if (kindCode < 0) {
+            return null;
+        }
+        if (kindCode >= KINDS.length) {
+            throw new IOException("Unknown trace record kind " + kindCode);
+        }
+
+        try {
+            TraceEvent.Kind kind = KINDS[kindCode];
+            long timeMicros = lastMicros + TraceFormat.unZigZag(TraceFormat.readVarLong(in));
+            lastMicros = timeMicros;
+            long sessionRef = in.readLong();
+
+            int role = TraceFormat.ROLE_UNKNOWN;
+            int messageType = 0;
+            int value = 0;
+            int flags = 0;
+            switch (kind) {
+                case SESSION_CREATED -> flags = in.readUnsignedByte();
+                case WS_CONNECTED -> {
+                    role = in.readUnsignedByte();
+                    flags = in.readUnsignedByte();
+                }
+                case WS_DISCONNECTED -> {
+                    role = in.readUnsignedByte();
+                    value = (int) TraceFormat.readVarLong(in);
+                }
+                case MESSAGE -> {
+                    role = in.readUnsignedByte();
+                    messageType = in.readUnsignedByte();
+                    value = (int) TraceFormat.readVarLong(in);
+                    flags = in.readUnsignedByte();
+                }
+                default -> { }
+            }
+            return new TraceEvent(kind, timeMicros, sessionRef, role, messageType, value, flags);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
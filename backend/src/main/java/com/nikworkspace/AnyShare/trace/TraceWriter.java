@@ -0,0 +1,69 @@
+package com.nikworkspace.AnyShare.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends trace records to a new file, not thread-safe (owned by the recorder's writer thread)
+ */
+public final class TraceWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private long lastMicros;
+
+    public TraceWriter(Path file, long baseEpochMillis) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW), 64 * 1024));
+        out.writeInt(TraceFormat.MAGIC);
+        out.writeByte(TraceFormat.VERSION);
+        out.writeLong(baseEpochMillis);
+    }
+
+    public void write(TraceEvent event) throws IOException {
+        out.writeByte(event.kind().ordinal());
+        // Producers enqueue concurrently, so deltas can be slightly negative
+        TraceFormat.writeVarLong(out, TraceFormat.zigZag(event.timeMicros() - lastMicros));
+        lastMicros = event.timeMicros();
+        out.writeLong(event.sessionRef());
+
+        switch (event.kind()) {
+            case SESSION_CREATED -> out.writeByte(event.flags());
+            case WS_CONNECTED -> {
+                out.writeByte(event.role());
+                out.writeByte(event.flags());
+            }
+            case WS_DISCONNECTED -> {
+                out.writeByte(event.role());
+                TraceFormat.writeVarLong(out, event.value());
+            }
+            case MESSAGE -> {
+                out.writeByte(event.role());
+                out.writeByte(event.messageType());
+                TraceFormat.writeVarLong(out, event.value());
+                out.writeByte(event.flags());
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Bytes written so far, including buffered ones
+     */
+    public long size() {
+        return out.size();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
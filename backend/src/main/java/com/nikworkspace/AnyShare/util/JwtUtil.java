@@ -12,6 +12,8 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -116,6 +118,70 @@ public class JwtUtil {
         return token;
     }
 
+    /**
+     * Generate single-use join capability for the QR code
+     * Lets a receiver be admitted directly on the WebSocket handshake
+     *
+     * @param sessionId Session the capability admits into
+     * @param capabilityId Unique capability ID (stored as jti)
+     * @param expiresAt Capability expiry (session expiry)
+     * @return Generated JWT token string
+     */
+    public String generateJoinToken(String sessionId, String capabilityId, LocalDateTime expiresAt) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sessionId", sessionId);
+        claims.put("type", "JOIN"); // Mark as join capability
+
+        Date now = new Date();
+        Date expiryDate = Date.from(expiresAt.atZone(ZoneId.systemDefault()).toInstant());
+
+        String token = Jwts.builder()
+                .claims(claims)
+                .subject(sessionId)
+                .id(capabilityId)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(getSigningKey())
+                .compact();
+
+        log.debug("Generated join capability for sessionId: {}, expires at: {}", sessionId, expiryDate);
+
+        return token;
+    }
+
+    /**
+     * Generate a token for one stored file's endpoints, valid for the file's lifetime
+     * Outlives the session and its peer tokens, so an upload can be resumed and the file
+     * downloaded after the session has expired
+     *
+     * @param sessionId Session the file was uploaded to
+     * @param fileId Stored file the token is for
+     * @param role SENDER (upload and download) or RECEIVER (download only)
+     * @param expiresAt Token expiry (file expiry)
+     * @return Generated JWT token string
+     */
+    public String generateFileToken(String sessionId, String fileId, String role, LocalDateTime expiresAt) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sessionId", sessionId);
+        claims.put("role", role);
+        claims.put("type", "STORED_FILE"); // Mark as stored-file token
+
+        Date now = new Date();
+        Date expiryDate = Date.from(expiresAt.atZone(ZoneId.systemDefault()).toInstant());
+
+        String token = Jwts.builder()
+                .claims(claims)
+                .subject(fileId)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(getSigningKey())
+                .compact();
+
+        log.debug("Generated stored-file token for fileId: {}, role: {}, expires at: {}", fileId, role, expiryDate);
+
+        return token;
+    }
+
     // ============= COMMON VALIDATION & EXTRACTION =============
 
     /**
@@ -199,7 +265,7 @@ public class JwtUtil {
     }
 
     /**
-     * Get token type (AUTH, REFRESH, or WEBSOCKET)
+     * Get token type (AUTH, REFRESH, WEBSOCKET, JOIN or STORED_FILE)
      *
      * @param token JWT token
      * @return Token type
@@ -0,0 +1,409 @@
+package com.nikworkspace.AnyShare.handler;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.nikworkspace.AnyShare.dto.JoinSessionRequest;
+import com.nikworkspace.AnyShare.entity.SessionEntity;
+import com.nikworkspace.AnyShare.enums.SessionStatus;
+import com.nikworkspace.AnyShare.exception.InvalidSessionStateException;
+import com.nikworkspace.AnyShare.exception.SessionFullException;
+import com.nikworkspace.AnyShare.interceptor.SignalingHandshakeInterceptor;
+import com.nikworkspace.AnyShare.metrics.SignalingMetrics;
+import com.nikworkspace.AnyShare.model.Peer;
+import com.nikworkspace.AnyShare.model.Session;
+import com.nikworkspace.AnyShare.relay.BinaryRelay;
+import com.nikworkspace.AnyShare.repository.SessionRepository;
+import com.nikworkspace.AnyShare.repository.UserRepository;
+import com.nikworkspace.AnyShare.service.SessionStatusBroadcaster;
+import com.nikworkspace.AnyShare.service.TransferIngestionService;
+import com.nikworkspace.AnyShare.service.impl.SessionServiceImpl;
+import com.nikworkspace.AnyShare.trace.SignalingTraceRecorder;
+import com.nikworkspace.AnyShare.util.CodeGenerator;
+import com.nikworkspace.AnyShare.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stress suite for races on a session's peers and status
+ * Each scenario starts its actors together on a fresh session many times over, then checks the
+ * invariants: no more than maxPeers connected, no peer kept once its socket closed, status in line
+ * with the peer count. Excluded from the default build; run with mvn -Pstress test
+ * (-Dstress.iterations=N for more rounds).
+ */
+@Tag("stress")
+class SessionConcurrencyStressTest {
+
+    private static final int ITERATIONS = Integer.getInteger("stress.iterations", 2_000);
+    private static final int MAX_PEERS = 2;
+
+    private static Level previousLogLevel;
+
+    private final Map<String, SessionEntity> entitiesByRoomCode = new ConcurrentHashMap<>();
+    private final Map<UUID, SessionEntity> entitiesById = new ConcurrentHashMap<>();
+    private final AtomicInteger socketIds = new AtomicInteger();
+
+    private SessionServiceImpl sessionService;
+    private SignalingWebSocketHandler handler;
+    private ExecutorService actors;
+
+    @BeforeAll
+    static void quietLogs() {
+        // Rejections are expected here and would otherwise log thousands of warnings
+        Logger logger = (Logger) LoggerFactory.getLogger("com.nikworkspace");
+        previousLogLevel = logger.getLevel();
+        logger.setLevel(Level.ERROR);
+    }
+
+    @AfterAll
+    static void restoreLogs() {
+        ((Logger) LoggerFactory.getLogger("com.nikworkspace")).setLevel(previousLogLevel);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Stub-only mocks don't record calls, so millions of them stay cheap and thread-safe
+        SessionRepository sessionRepository = mock(SessionRepository.class, withSettings().stubOnly());
+        when(sessionRepository.findByRoomCode(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(entitiesByRoomCode.get(call.<String>getArgument(0))));
+        when(sessionRepository.findById(any()))
+                .thenAnswer(call -> Optional.ofNullable(entitiesById.get(call.<UUID>getArgument(0))));
+        when(sessionRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+
+        sessionService = new SessionServiceImpl(sessionRepository,
+                mock(UserRepository.class, withSettings().stubOnly()), new CodeGenerator(),
+                mock(JwtUtil.class, withSettings().stubOnly()), new SessionStatusBroadcaster(),
+                mock(TransferIngestionService.class, withSettings().stubOnly()));
+        SignalingMetrics signalingMetrics = new SignalingMetrics(new SimpleMeterRegistry(), sessionService);
+        handler = new SignalingWebSocketHandler(sessionService, mock(JwtUtil.class, withSettings().stubOnly()),
+                signalingMetrics, new SignalingTraceRecorder(sessionService, false, "traces", 0, 1),
+                new BinaryRelay(signalingMetrics, false, 0, 0, 0, 0));
+        actors = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.shutdownNow();
+    }
+
+    /**
+     * Receivers race to join and connect to a session nobody has loaded yet
+     */
+    @Test
+    void concurrentJoinsNeverExceedMaxPeers() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            String roomCode = storeSession();
+            Queue<TestSocket> sockets = new ConcurrentLinkedQueue<>();
+
+            Callable<Void> joinAndConnect = () -> {
+                String peerId = join(roomCode);
+                if (peerId != null) {
+                    sockets.add(connect(roomCode, peerId));
+                }
+                return null;
+            };
+            race(joinAndConnect, joinAndConnect, joinAndConnect, joinAndConnect);
+
+            Session session = sessionService.findActiveSession(roomCode).orElseThrow();
+            assertInvariants(session);
+            assertTrue(connectedPeers(session) >= 1, "at least one joiner gets in");
+            disconnectAll(session, sockets);
+        }
+    }
+
+    /**
+     * A peer reconnects on a new socket while the close of its old one is still being handled
+     */
+    @Test
+    void reconnectRacingCloseKeepsOnlyLivePeers() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            String roomCode = storeSession();
+            String senderId = join(roomCode);
+            String receiverId = join(roomCode);
+            Queue<TestSocket> sockets = new ConcurrentLinkedQueue<>();
+            sockets.add(connect(roomCode, senderId));
+            TestSocket oldSocket = connect(roomCode, receiverId);
+
+            race(() -> {
+                disconnect(oldSocket, CloseStatus.GOING_AWAY);
+                return null;
+            }, () -> {
+                sockets.add(connect(roomCode, receiverId));
+                return null;
+            });
+
+            Session session = sessionService.findActiveSession(roomCode).orElseThrow();
+            assertInvariants(session);
+            Peer receiver = session.getPeers().get(receiverId);
+            if (receiver != null) {
+                assertNotSame(oldSocket, receiver.getWsSession(), "reconnected peer keeps its new socket");
+            }
+            disconnectAll(session, sockets);
+        }
+    }
+
+    /**
+     * One peer of a full session leaves while two newcomers try to take its place
+     */
+    @Test
+    void leaveAndJoinKeepStatusConsistent() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            String roomCode = storeSession();
+            Queue<TestSocket> sockets = new ConcurrentLinkedQueue<>();
+            TestSocket leaving = connect(roomCode, join(roomCode));
+            sockets.add(connect(roomCode, join(roomCode)));
+            assertEquals(SessionStatus.CONNECTED, sessionService.findActiveSession(roomCode).orElseThrow().getStatus());
+
+            Callable<Void> joinAndConnect = () -> {
+                String peerId = join(roomCode);
+                if (peerId != null) {
+                    sockets.add(connect(roomCode, peerId));
+                }
+                return null;
+            };
+            race(() -> {
+                disconnect(leaving, CloseStatus.NORMAL);
+                return null;
+            }, joinAndConnect, joinAndConnect);
+
+            Session session = sessionService.findActiveSession(roomCode).orElseThrow();
+            assertInvariants(session);
+            disconnectAll(session, sockets);
+        }
+    }
+
+    private void assertInvariants(Session session) {
+        synchronized (session) {
+            assertTrue(connectedPeers(session) <= session.getMaxPeers(),
+                    "connected peers " + connectedPeers(session) + " exceed " + session.getMaxPeers());
+            for (Peer peer : session.getPeers().values()) {
+                assertTrue(peer.isConnected(), "peer " + peer.getPeerId() + " kept after its socket closed");
+            }
+            SessionStatus expected = session.getPeers().size() >= session.getMaxPeers()
+                    ? SessionStatus.CONNECTED
+                    : SessionStatus.WAITING;
+            assertEquals(expected, session.getStatus(), "status with " + session.getPeers().size() + " peers");
+        }
+    }
+
+    // Close every socket; the session must end up empty and waiting again
+    private void disconnectAll(Session session, Queue<TestSocket> sockets) throws Exception {
+        for (TestSocket socket : sockets) {
+            disconnect(socket, CloseStatus.NORMAL);
+        }
+        assertTrue(session.getPeers().isEmpty(), "peers left after all sockets closed: " + session.getPeers().keySet());
+        assertEquals(SessionStatus.WAITING, session.getStatus());
+    }
+
+    private long connectedPeers(Session session) {
+        return session.getPeers().values().stream().filter(Peer::isConnected).count();
+    }
+
+    /**
+     * Store a waiting session in the "database" only, so the first actor to touch it loads it
+     */
+    private String storeSession() {
+        UUID id = UUID.randomUUID();
+        SessionEntity entity = SessionEntity.builder()
+                .id(id)
+                .roomCode("STRESS-" + id)
+                .status(SessionStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .maxPeers(MAX_PEERS)
+                .build();
+        entitiesById.put(id, entity);
+        entitiesByRoomCode.put(entity.getRoomCode(), entity);
+        return entity.getRoomCode();
+    }
+
+    /**
+     * @return The new peer's ID, or null if the session was full
+     */
+    private String join(String roomCode) {
+        JoinSessionRequest request = new JoinSessionRequest();
+        request.setDeviceType("MOBILE");
+        try {
+            return sessionService.joinSession(roomCode, request).getPeerId();
+        } catch (SessionFullException | InvalidSessionStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Open a socket the way the handshake interceptor hands it over; a rejected one is closed like the container would
+     */
+    private TestSocket connect(String roomCode, String peerId) throws Exception {
+        Session session = sessionService.findActiveSession(roomCode).orElseThrow();
+        TestSocket socket = new TestSocket("ws-" + socketIds.incrementAndGet());
+        socket.getAttributes().put(SignalingHandshakeInterceptor.ATTR_SESSION, session);
+        socket.getAttributes().put(SignalingHandshakeInterceptor.ATTR_PEER_ID, peerId);
+        handler.afterConnectionEstablished(socket);
+        if (!socket.isOpen()) {
+            handler.afterConnectionClosed(socket, socket.closeStatus);
+        }
+        return socket;
+    }
+
+    private void disconnect(TestSocket socket, CloseStatus status) throws Exception {
+        if (socket.isOpen()) {
+            socket.close(status);
+            handler.afterConnectionClosed(socket, status);
+        }
+    }
+
+    /**
+     * Run the actors on separate threads, released together
+     */
+    @SafeVarargs
+    private void race(Callable<Void>... tasks) throws Exception {
+        CountDownLatch ready = new CountDownLatch(tasks.length);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            results.add(actors.submit(() -> {
+                ready.countDown();
+                go.await();
+                return task.call();
+            }));
+        }
+        ready.await();
+        go.countDown();
+        for (Future<Void> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * WebSocket session that is open until closed and drops outgoing messages
+     */
+    private static final class TestSocket implements WebSocketSession {
+
+        private final String id;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+        private volatile CloseStatus closeStatus;
+
+        TestSocket(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost:8080/signal");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closeStatus = status;
+            open = false;
+        }
+    }
+}
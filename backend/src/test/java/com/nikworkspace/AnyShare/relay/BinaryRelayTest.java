@@ -0,0 +1,156 @@
+package com.nikworkspace.AnyShare.relay;
+
+import com.nikworkspace.AnyShare.metrics.SignalingMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryRelayTest {
+
+    private static final String SESSION = "session-1";
+    private static final String SENDER = "sender-1";
+    private static final int WINDOW = 1000;
+
+    @Mock
+    private SignalingMetrics signalingMetrics;
+
+    @Mock
+    private WebSocketSession target;
+
+    private BinaryRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        if (relay != null) {
+            relay.shutdown();
+        }
+    }
+
+    // =======================
+    // FORWARD
+    // =======================
+
+    @Test
+    void forward_withoutStart_shouldRefuseAndSendNothing() throws IOException {
+
+        relay = uncapped();
+
+        assertEquals(BinaryRelay.Outcome.NO_CREDIT, relay.forward(SESSION, SENDER, target, frame(10)));
+        verify(target, never()).sendMessage(any());
+    }
+
+    @Test
+    void forward_onceWindowIsSpent_shouldReturnNoCredit() throws IOException {
+
+        relay = uncapped();
+        relay.start(SESSION, SENDER);
+
+        assertEquals(BinaryRelay.Outcome.FORWARDED, relay.forward(SESSION, SENDER, target, frame(600)));
+        assertEquals(BinaryRelay.Outcome.FORWARDED, relay.forward(SESSION, SENDER, target, frame(400)));
+
+        // ✅ A full window is in flight: not one more byte until credit comes back
+        assertEquals(BinaryRelay.Outcome.NO_CREDIT, relay.forward(SESSION, SENDER, target, frame(1)));
+        verify(target, times(2)).sendMessage(any());
+        verify(signalingMetrics).recordRelay(600, 0);
+    }
+
+    @Test
+    void forward_afterPeerLeft_shouldReturnNoCredit() throws IOException {
+
+        relay = uncapped();
+        relay.start(SESSION, SENDER);
+        relay.peerLeft(SESSION, SENDER);
+
+        assertEquals(BinaryRelay.Outcome.NO_CREDIT, relay.forward(SESSION, SENDER, target, frame(10)));
+    }
+
+    // =======================
+    // GRANT
+    // =======================
+
+    @Test
+    void grant_shouldCapCreditAtOneWindow() throws IOException {
+
+        relay = uncapped();
+        relay.start(SESSION, SENDER);
+        relay.forward(SESSION, SENDER, target, frame(400));
+
+        List<Long> granted = new ArrayList<>();
+        relay.grant(SESSION, SENDER, 5000, granted::add);
+        // Already a full window: nothing to hand back
+        relay.grant(SESSION, SENDER, 100, granted::add);
+
+        assertEquals(List.of(400L), granted);
+        assertEquals(BinaryRelay.Outcome.FORWARDED, relay.forward(SESSION, SENDER, target, frame(WINDOW)));
+    }
+
+    @Test
+    void grant_unknownSenderOrNothing_shouldNotCallBack() {
+
+        relay = uncapped();
+        relay.start(SESSION, SENDER);
+
+        List<Long> granted = new ArrayList<>();
+        relay.grant(SESSION, "someone-else", 100, granted::add);
+        relay.grant("other-session", SENDER, 100, granted::add);
+        relay.grant(SESSION, SENDER, 0, granted::add);
+
+        assertTrue(granted.isEmpty());
+    }
+
+    @Test
+    void grant_whileCapsHoldCreditBack_shouldBeDeferredOnThePacer() throws Exception {
+
+        // 1000 B/s per session, burst of one window
+        relay = new BinaryRelay(signalingMetrics, true, WINDOW, WINDOW, 1000, 0);
+        relay.start(SESSION, SENDER);
+
+        // First window fits the burst: credit comes straight back
+        relay.forward(SESSION, SENDER, target, frame(WINDOW));
+        AtomicLong immediate = new AtomicLong();
+        relay.grant(SESSION, SENDER, WINDOW, immediate::set);
+        assertEquals(WINDOW, immediate.get());
+
+        // Second window is over the cap: it still goes out at once, but its credit is due in ~1 s
+        assertEquals(BinaryRelay.Outcome.FORWARDED, relay.forward(SESSION, SENDER, target, frame(WINDOW)));
+        verify(target, times(2)).sendMessage(any());
+
+        long grantedAt = System.nanoTime();
+        AtomicLong deferred = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(1);
+        relay.grant(SESSION, SENDER, WINDOW, bytes -> {
+            deferred.set(bytes);
+            done.countDown();
+        });
+
+        // ✅ Not granted on the caller's thread, and not before the cap allows it
+        assertEquals(0, deferred.get());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(WINDOW, deferred.get());
+        assertTrue(System.nanoTime() - grantedAt >= TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    private BinaryRelay uncapped() {
+        return new BinaryRelay(signalingMetrics, true, WINDOW, WINDOW, 0, 0);
+    }
+
+    private BinaryMessage frame(int bytes) {
+        return new BinaryMessage(new byte[bytes]);
+    }
+}
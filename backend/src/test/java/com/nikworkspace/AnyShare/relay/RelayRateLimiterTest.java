@@ -0,0 +1,88 @@
+package com.nikworkspace.AnyShare.relay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelayRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    // Arbitrary System.nanoTime() origin
+    private static final long T0 = 42 * SECOND;
+
+    // =======================
+    // BURST AND REFILL
+    // =======================
+
+    @Test
+    void reserve_unlimited_shouldNeverWait() {
+
+        RelayRateLimiter limiter = new RelayRateLimiter(0, 0);
+
+        assertFalse(limiter.isLimited());
+        assertEquals(0, limiter.reserve(Long.MAX_VALUE, T0));
+    }
+
+    @Test
+    void reserve_withinBurst_shouldNotWaitThenPaceAtTheRate() {
+
+        // 1000 B/s, 500 bytes of burst
+        RelayRateLimiter limiter = new RelayRateLimiter(1000, 500);
+
+        assertEquals(0, limiter.reserve(500, T0));
+
+        // ✅ Burst spent: each further byte costs 1 ms, and back-to-back waits add up
+        assertEquals(100_000_000L, limiter.reserve(100, T0));
+        assertEquals(1_100_000_000L, limiter.reserve(1000, T0));
+    }
+
+    @Test
+    void reserve_afterPartialIdle_shouldRefillInProportion() {
+
+        RelayRateLimiter limiter = new RelayRateLimiter(1000, 500);
+        limiter.reserve(500, T0);
+
+        // 200 ms idle gave back 200 bytes, so 300 bytes wait for the other 100
+        assertEquals(100_000_000L, limiter.reserve(300, T0 + 200_000_000L));
+    }
+
+    @Test
+    void reserve_afterLongIdle_shouldRefillOnlyUpToTheBurst() {
+
+        RelayRateLimiter limiter = new RelayRateLimiter(1000, 500);
+        limiter.reserve(500, T0);
+
+        long later = T0 + 60 * SECOND;
+        assertEquals(0, limiter.reserve(500, later));
+        // ✅ A minute idle doesn't bank a minute of bytes
+        assertEquals(100_000_000L, limiter.reserve(100, later));
+    }
+
+    // =======================
+    // COST MATH
+    // =======================
+
+    @Test
+    void nanosFor_shouldBeExactWhereBytesTimesOneBillionWouldOverflow() {
+
+        // 20 GB at 1000 B/s: 20e9 * 1e9 doesn't fit in a long
+        assertEquals(20_000_000L * SECOND, new RelayRateLimiter(1000, 0).nanosFor(20_000_000_000L));
+
+        // Rates above ~9 GB/s: the remainder times 1e9 doesn't fit either
+        RelayRateLimiter fast = new RelayRateLimiter(10_000_000_000L, 0);
+        assertEquals(SECOND, fast.nanosFor(10_000_000_000L));
+        assertEquals(500_000_000L, fast.nanosFor(5_000_000_000L));
+        assertEquals(950_000_000L, fast.nanosFor(9_500_000_000L));
+    }
+
+    @Test
+    void reserve_hugeByteCount_shouldClampInsteadOfWrapping() {
+
+        RelayRateLimiter limiter = new RelayRateLimiter(1, 0);
+
+        long wait = limiter.reserve(Long.MAX_VALUE, T0);
+
+        assertTrue(wait > 0);
+        assertEquals(limiter.nanosFor(Long.MAX_VALUE), wait);
+    }
+}
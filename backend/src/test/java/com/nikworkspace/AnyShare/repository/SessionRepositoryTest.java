@@ -0,0 +1,66 @@
+package com.nikworkspace.AnyShare.repository;
+
+import com.nikworkspace.AnyShare.entity.SessionEntity;
+import com.nikworkspace.AnyShare.entity.StoredFile;
+import com.nikworkspace.AnyShare.enums.SessionStatus;
+import com.nikworkspace.AnyShare.enums.StoredFileStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Native retention queries against the configured database (rolled back after each test)
+ */
+@SpringBootTest
+@Transactional
+class SessionRepositoryTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    // =======================
+    // RETENTION PURGE
+    // =======================
+
+    @Test
+    void deleteFinishedBefore_shouldSkipSessionsThatStillHaveStoredFiles() {
+
+        SessionEntity withFile = finishedSession();
+        SessionEntity withoutFile = finishedSession();
+        storedFileRepository.saveAndFlush(StoredFile.builder()
+                .session(withFile)
+                .fileName("left-behind.bin")
+                .fileSize(1L)
+                .status(StoredFileStatus.UPLOADING)
+                .chunkSize(4)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+
+        // ✅ No foreign key violation: the batch goes through and only skips the referenced session
+        int deleted = sessionRepository.deleteFinishedBefore(LocalDateTime.now().plusMinutes(1), 1000);
+
+        assertTrue(deleted >= 1);
+        assertTrue(sessionRepository.existsById(withFile.getId()));
+        assertFalse(sessionRepository.existsById(withoutFile.getId()));
+    }
+
+    private SessionEntity finishedSession() {
+        UUID id = UUID.randomUUID();
+        return sessionRepository.saveAndFlush(SessionEntity.builder()
+                .id(id)
+                .roomCode("T-" + id.toString().substring(0, 8))
+                .status(SessionStatus.EXPIRED)
+                .maxPeers(2)
+                .expiresAt(LocalDateTime.now().minusMinutes(5))
+                .build());
+    }
+}
@@ -2,12 +2,14 @@ package com.nikworkspace.AnyShare.service;
 
 import com.nikworkspace.AnyShare.dto.JoinSessionRequest;
 import com.nikworkspace.AnyShare.dto.SessionCreateResponse;
+import com.nikworkspace.AnyShare.dto.SessionInfoResponse;
 import com.nikworkspace.AnyShare.dto.SessionJoinResponse;
 import com.nikworkspace.AnyShare.dto.SignalMessageDTO;
 import com.nikworkspace.AnyShare.entity.SessionEntity;
 import com.nikworkspace.AnyShare.enums.SessionStatus;
 import com.nikworkspace.AnyShare.exception.SessionExpiredException;
 import com.nikworkspace.AnyShare.exception.SessionFullException;
+import com.nikworkspace.AnyShare.exception.UnauthorizedException;
 import com.nikworkspace.AnyShare.model.Peer;
 import com.nikworkspace.AnyShare.model.Session;
 import com.nikworkspace.AnyShare.repository.SessionRepository;
@@ -30,6 +32,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +51,12 @@ class SessionServiceImplTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private SessionStatusBroadcaster statusBroadcaster;
+
+    @Mock
+    private TransferIngestionService transferIngestionService;
+
     @InjectMocks
     private SessionServiceImpl service;
     // =======================
@@ -80,6 +89,29 @@ class SessionServiceImplTest {
         assertEquals("TEST123", s.getRoomCode());
     }
 
+    @Test
+    void createSession_withJoinAsSender_shouldRegisterSenderAndReturnToken() {
+
+        when(codeGenerator.generateRoomCode()).thenReturn("TEST456");
+        when(sessionRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(jwtUtil.generateToken(any(), any(), eq("SENDER"))).thenReturn("SENDER_TOKEN");
+
+        SignalMessageDTO.SessionCreateRequest req =
+                new SignalMessageDTO.SessionCreateRequest("DESKTOP", "Chrome", true);
+
+        SessionCreateResponse response = service.createSession(req);
+
+        assertEquals("SENDER_TOKEN", response.getToken());
+        assertNotNull(response.getPeerId());
+
+        // ✅ Sender registered in the same call, no separate join needed
+        Session s = service.getOrLoadSession(response.getSessionId());
+        Peer sender = s.getPeers().get(response.getPeerId());
+        assertNotNull(sender);
+        assertEquals("SENDER", sender.getRole());
+        assertEquals(SessionStatus.WAITING, s.getStatus());
+    }
+
     // =======================
     // LOAD SESSION FROM DB
     // =======================
@@ -139,6 +171,101 @@ class SessionServiceImplTest {
         assertEquals(id.toString(), response.getSessionId());
     }
 
+    // =======================
+    // QR JOIN CAPABILITY
+    // =======================
+
+    @Test
+    void admitWithJoinCapability_shouldAdmitOnceThenReject() {
+
+        UUID id = UUID.randomUUID();
+
+        // Capability comes back with the session when it is reloaded from the database
+        SessionEntity entity = SessionEntity.builder()
+                .id(id)
+                .roomCode("QRROOM")
+                .status(SessionStatus.WAITING)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .maxPeers(2)
+                .joinCapabilityId("CAP-1")
+                .build();
+
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(sessionRepository.consumeJoinCapability(id, "CAP-1")).thenReturn(1);
+
+        Session session = service.getOrLoadSession(id.toString());
+        assertEquals("CAP-1", session.getJoinCapabilityId());
+
+        Peer peer = service.admitWithJoinCapability(id.toString(), "CAP-1", "MOBILE", null);
+
+        assertEquals("RECEIVER", peer.getRole());
+        assertSame(peer, session.getPeers().get(peer.getPeerId()));
+        assertNull(session.getJoinCapabilityId());
+
+        // ✅ Capability is single use
+        assertThrows(UnauthorizedException.class, () ->
+                service.admitWithJoinCapability(id.toString(), "CAP-1", "MOBILE", null)
+        );
+        verify(sessionRepository, times(1)).consumeJoinCapability(id, "CAP-1");
+    }
+
+    @Test
+    void admitWithJoinCapability_alreadyConsumedInDatabase_shouldRejectWithoutAdmitting() {
+
+        UUID id = UUID.randomUUID();
+
+        SessionEntity entity = SessionEntity.builder()
+                .id(id)
+                .roomCode("QRUSED")
+                .status(SessionStatus.WAITING)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .maxPeers(2)
+                .joinCapabilityId("CAP-2")
+                .build();
+
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(entity));
+        // Another instance (or this one before a reload) already used it
+        when(sessionRepository.consumeJoinCapability(id, "CAP-2")).thenReturn(0);
+
+        Session session = service.getOrLoadSession(id.toString());
+
+        assertThrows(UnauthorizedException.class, () ->
+                service.admitWithJoinCapability(id.toString(), "CAP-2", "MOBILE", null)
+        );
+        assertTrue(session.getPeers().isEmpty());
+    }
+
+    // =======================
+    // SESSION INFO ETAG
+    // =======================
+
+    @Test
+    void getSessionInfoEtag_shouldChangeWhenPeerJoins() {
+
+        when(codeGenerator.generateRoomCode()).thenReturn("ETAG1");
+        when(sessionRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        SessionCreateResponse created = service.createSession(
+                new SignalMessageDTO.SessionCreateRequest("DESKTOP", "Chrome"));
+
+        String before = service.getSessionInfoEtag("ETAG1");
+        assertNotNull(before);
+        assertEquals(before, service.getSessionInfoEtag("ETAG1"));
+
+        service.joinSession("ETAG1", new JoinSessionRequest("MOBILE", "Chrome"));
+
+        String after = service.getSessionInfoEtag("ETAG1");
+        assertNotEquals(before, after);
+
+        // ✅ ETag matches the body a full read would return
+        SessionInfoResponse info = service.getSessionInfo("ETAG1");
+        assertEquals(after, SessionInfoResponse.etag(created.getSessionId(), info.getVersion()));
+
+        // ✅ Unknown codes never fall back to the database
+        assertNull(service.getSessionInfoEtag("NOPE"));
+        verify(sessionRepository, never()).findByRoomCode("NOPE");
+    }
+
     // =======================
     // SESSION FULL
     // =======================
@@ -0,0 +1,152 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.TransferReportRequest;
+import com.nikworkspace.AnyShare.entity.Transfer;
+import com.nikworkspace.AnyShare.exception.RateLimitExceededException;
+import com.nikworkspace.AnyShare.repository.TransferRepository;
+import com.nikworkspace.AnyShare.repository.UserTransferStatsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIngestionServiceTest {
+
+    private static final UUID SESSION = UUID.randomUUID();
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private UserTransferStatsRepository statsRepository;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransferIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransferIngestionService(transferRepository, statsRepository, userStatsService, entityManager,
+                transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(), 3, 50);
+    }
+
+    // =======================
+    // SUBMIT
+    // =======================
+
+    @Test
+    void submit_invalidReport_shouldRejectWithEveryViolation() {
+
+        TransferReportRequest report = TransferReportRequest.builder()
+                .fileName(" ")
+                .fileSize(-1L)
+                .build();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.submit(SESSION, UUID.randomUUID(), report));
+
+        assertEquals("File name is required, File size must not be negative", e.getMessage());
+
+        // ✅ Nothing was queued
+        service.flush();
+        verifyNoInteractions(transactionTemplate, transferRepository);
+    }
+
+    @Test
+    void submit_queueFull_shouldRejectWithRateLimit() {
+
+        service.submit(SESSION, null, report("a.txt"));
+        service.submit(SESSION, null, report("b.txt"));
+        service.submit(SESSION, null, report("c.txt"));
+
+        assertThrows(RateLimitExceededException.class, () -> service.submit(SESSION, null, report("d.txt")));
+    }
+
+    // =======================
+    // FLUSH
+    // =======================
+
+    @Test
+    void flush_shouldPersistOneBatchAndEvictItsSenders() {
+
+        runTransactionsInline();
+        UUID sender = UUID.randomUUID();
+        service.submit(SESSION, sender, report("a.txt"));
+        service.submit(SESSION, null, report("b.txt"));
+
+        service.flush();
+
+        verify(transferRepository, times(1)).saveAll(any());
+        // Anonymous transfers have no rollup
+        verify(statsRepository).addTransfers(eq(sender), eq(1L), eq(100L), eq(100L), eq(10L), any());
+        verify(userStatsService).evict(Set.of(sender));
+    }
+
+    @Test
+    void flush_oneFailingRow_shouldStillPersistTheRestOfTheBatch() {
+
+        runTransactionsInline();
+        List<String> saved = new ArrayList<>();
+        when(transferRepository.saveAll(any())).thenAnswer(i -> {
+            List<Transfer> transfers = i.getArgument(0);
+            if (transfers.stream().anyMatch(t -> t.getFileName().equals("bad.txt"))) {
+                throw new DataIntegrityViolationException("session row is gone");
+            }
+            transfers.forEach(t -> saved.add(t.getFileName()));
+            return transfers;
+        });
+
+        UUID good = UUID.randomUUID();
+        UUID bad = UUID.randomUUID();
+        service.submit(SESSION, good, report("a.txt"));
+        service.submit(SESSION, bad, report("bad.txt"));
+        service.submit(SESSION, good, report("c.txt"));
+
+        service.flush();
+
+        // ✅ Batch failed, then each row retried alone: only the bad one is lost
+        assertEquals(List.of("a.txt", "c.txt"), saved);
+        verify(transferRepository, times(4)).saveAll(any());
+        verify(statsRepository, times(2)).addTransfers(eq(good), eq(1L), anyLong(), anyLong(), anyLong(), any());
+        verify(userStatsService, times(2)).evict(Set.of(good));
+        verify(userStatsService, never()).evict(Set.of(bad));
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(i -> ((TransactionCallback<?>) i.getArgument(0)).doInTransaction(null));
+    }
+
+    private TransferReportRequest report(String fileName) {
+        return TransferReportRequest.builder()
+                .fileName(fileName)
+                .fileSize(100L)
+                .mimeType("text/plain")
+                .transferDurationSeconds(10)
+                .build();
+    }
+}
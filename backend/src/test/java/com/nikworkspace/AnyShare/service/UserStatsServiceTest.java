@@ -0,0 +1,100 @@
+package com.nikworkspace.AnyShare.service;
+
+import com.nikworkspace.AnyShare.dto.UserTransferStatsResponse;
+import com.nikworkspace.AnyShare.entity.UserTransferStats;
+import com.nikworkspace.AnyShare.repository.UserTransferStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTest {
+
+    private static final UUID USER = UUID.randomUUID();
+
+    @Mock
+    private UserTransferStatsRepository statsRepository;
+
+    private UserStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserStatsService(statsRepository, 100);
+    }
+
+    // =======================
+    // HOT CACHE
+    // =======================
+
+    @Test
+    void getStats_shouldServeRepeatReadsFromTheCache() {
+
+        when(statsRepository.findById(USER)).thenReturn(Optional.of(stats(3)));
+
+        assertEquals(3L, service.getStats(USER).getTransferCount());
+        assertEquals(3L, service.getStats(USER).getTransferCount());
+
+        verify(statsRepository, times(1)).findById(USER);
+    }
+
+    @Test
+    void getStats_userWithoutRollup_shouldReturnZeros() {
+
+        when(statsRepository.findById(USER)).thenReturn(Optional.empty());
+
+        UserTransferStatsResponse response = service.getStats(USER);
+
+        assertEquals(0L, response.getTransferCount());
+        assertEquals(0L, response.getTotalBytes());
+    }
+
+    @Test
+    void evict_shouldMakeTheNextReadHitTheDatabase() {
+
+        when(statsRepository.findById(USER)).thenReturn(Optional.of(stats(3)), Optional.of(stats(4)));
+        service.getStats(USER);
+
+        service.evict(List.of(USER));
+
+        assertEquals(4L, service.getStats(USER).getTransferCount());
+    }
+
+    // =======================
+    // RACE WITH A FLUSH
+    // =======================
+
+    @Test
+    void getStats_readThatStartedBeforeAnEvict_shouldNotBeCached() {
+
+        // A flush commits and evicts while this read is between the lookup and the cache put
+        when(statsRepository.findById(USER))
+                .thenAnswer(i -> {
+                    service.evict(List.of(USER));
+                    return Optional.of(stats(3));
+                })
+                .thenReturn(Optional.of(stats(4)));
+
+        assertEquals(3L, service.getStats(USER).getTransferCount());
+
+        // ✅ Stale value wasn't put back: the next read sees the committed rollup
+        assertEquals(4L, service.getStats(USER).getTransferCount());
+        verify(statsRepository, times(2)).findById(USER);
+    }
+
+    private UserTransferStats stats(long transferCount) {
+        return UserTransferStats.builder()
+                .userId(USER)
+                .transferCount(transferCount)
+                .totalBytes(transferCount * 100)
+                .build();
+    }
+}
@@ -0,0 +1,189 @@
+package com.nikworkspace.AnyShare.storage;
+
+import com.nikworkspace.AnyShare.entity.StoredChunk;
+import com.nikworkspace.AnyShare.repository.StoredChunkOwnerRepository;
+import com.nikworkspace.AnyShare.repository.StoredChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkStoreTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @Mock
+    private StoredChunkRepository storedChunkRepository;
+
+    @Mock
+    private StoredChunkOwnerRepository storedChunkOwnerRepository;
+
+    @TempDir
+    Path storageDir;
+
+    private ChunkStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ChunkStore(storedChunkRepository, storedChunkOwnerRepository, storageDir.toString());
+    }
+
+    // =======================
+    // COMMIT
+    // =======================
+
+    @Test
+    void commit_newContent_shouldPublishUnderItsHashAndCreateTheRow() throws IOException {
+
+        ChunkWriter writer = write("hello");
+        String hash = writer.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0);
+
+        store.commit(writer, hash, OWNER);
+
+        // ✅ Content-addressed path, temp file moved (not copied)
+        Path target = store.path(hash);
+        assertEquals(storageDir.resolve("chunks").resolve(hash.substring(0, 2)).resolve(hash), target);
+        assertEquals("hello", Files.readString(target));
+        assertFalse(Files.exists(writer.getTemp()));
+
+        ArgumentCaptor<StoredChunk> saved = ArgumentCaptor.forClass(StoredChunk.class);
+        verify(storedChunkRepository).save(saved.capture());
+        assertEquals(hash, saved.getValue().getHash());
+        assertEquals(5L, saved.getValue().getSize());
+        assertEquals(1, saved.getValue().getRefCount());
+        verify(storedChunkOwnerRepository).addOwner(hash, OWNER);
+    }
+
+    @Test
+    void commit_existingContent_shouldDropTheCopyAndTakeAReference() throws IOException {
+
+        ChunkWriter first = write("hello");
+        String hash = first.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0, 1);
+        store.commit(first, hash, OWNER);
+
+        ChunkWriter second = write("hello");
+        store.commit(second, second.finish(), OWNER);
+
+        // ✅ One row, one file on disk, the duplicate temp file is gone
+        verify(storedChunkRepository, times(1)).save(any());
+        verify(storedChunkRepository, times(2)).incrementRefCount(hash);
+        assertFalse(Files.exists(second.getTemp()));
+        assertEquals("hello", Files.readString(store.path(hash)));
+    }
+
+    // =======================
+    // CLAIM
+    // =======================
+
+    @Test
+    void claim_byOwnerThatUploadedIt_shouldTakeAReference() throws IOException {
+
+        ChunkWriter writer = write("hello");
+        String hash = writer.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0, 2);
+        store.commit(writer, hash, OWNER);
+        when(storedChunkOwnerRepository.existsByHashAndOwnerId(hash, OWNER)).thenReturn(true);
+
+        assertTrue(store.claim(hash, OWNER));
+        verify(storedChunkRepository, times(2)).incrementRefCount(hash);
+    }
+
+    @Test
+    void claim_byAnotherOwner_shouldLookMissingAndTakeNothing() throws IOException {
+
+        ChunkWriter writer = write("hello");
+        String hash = writer.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0);
+        store.commit(writer, hash, OWNER);
+
+        UUID other = UUID.randomUUID();
+        when(storedChunkOwnerRepository.existsByHashAndOwnerId(hash, other)).thenReturn(false);
+
+        assertFalse(store.claim(hash, other));
+        verify(storedChunkRepository, times(1)).incrementRefCount(hash);
+    }
+
+    @Test
+    void claim_whenChunkFileIsGone_shouldFail() {
+
+        String hash = "ab".repeat(32);
+        when(storedChunkOwnerRepository.existsByHashAndOwnerId(hash, OWNER)).thenReturn(true);
+
+        assertFalse(store.claim(hash, OWNER));
+        verify(storedChunkRepository, never()).incrementRefCount(any());
+    }
+
+    // =======================
+    // GARBAGE COLLECTION
+    // =======================
+
+    @Test
+    void collectGarbage_shouldDeleteUnreferencedChunksAndTheirOwners() throws IOException {
+
+        ChunkWriter writer = write("hello");
+        String hash = writer.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0);
+        store.commit(writer, hash, OWNER);
+
+        when(storedChunkRepository.findTop500ByRefCount(0))
+                .thenReturn(List.of(StoredChunk.builder().hash(hash).size(5L).refCount(0).build()));
+        when(storedChunkRepository.deleteIfUnreferenced(hash)).thenReturn(1);
+
+        store.collectGarbage();
+
+        assertFalse(Files.exists(store.path(hash)));
+        verify(storedChunkOwnerRepository).deleteOwners(hash);
+    }
+
+    @Test
+    void collectGarbage_chunkReferencedAgain_shouldKeepIt() throws IOException {
+
+        ChunkWriter writer = write("hello");
+        String hash = writer.finish();
+        when(storedChunkRepository.incrementRefCount(hash)).thenReturn(0);
+        store.commit(writer, hash, OWNER);
+
+        // Listed as unreferenced, then claimed before the conditional delete
+        when(storedChunkRepository.findTop500ByRefCount(0))
+                .thenReturn(List.of(StoredChunk.builder().hash(hash).size(5L).refCount(0).build()));
+        when(storedChunkRepository.deleteIfUnreferenced(hash)).thenReturn(0);
+
+        store.collectGarbage();
+
+        assertTrue(Files.exists(store.path(hash)));
+        verify(storedChunkOwnerRepository, never()).deleteOwners(any());
+    }
+
+    @Test
+    void release_shouldDropOneReference() {
+
+        store.release("ab".repeat(32));
+
+        verify(storedChunkRepository).decrementRefCount("ab".repeat(32));
+    }
+
+    private ChunkWriter write(String content) throws IOException {
+        ChunkWriter writer = store.newWriter();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        assertEquals(bytes.length, writer.write(new ByteArrayInputStream(bytes), bytes.length));
+        return writer;
+    }
+}
@@ -0,0 +1,171 @@
+package com.nikworkspace.AnyShare.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedUploadTest {
+
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+    private static final String HASH_C = "c".repeat(64);
+
+    @TempDir
+    Path tempDir;
+
+    // =======================
+    // CHUNK LAYOUT
+    // =======================
+
+    @Test
+    void chunkLayout_shouldSizeLastChunkToTheRemainder() {
+
+        ChunkedUpload upload = new ChunkedUpload(10, 4, null, null);
+
+        assertEquals(3, upload.getChunkCount());
+        assertEquals(8, upload.chunkStart(2));
+        assertEquals(4, upload.chunkLength(1));
+        assertEquals(2, upload.chunkLength(2));
+        assertEquals(List.of(0, 1, 2), upload.missingChunks());
+    }
+
+    @Test
+    void emptyFile_shouldBeCompleteRightAway() {
+
+        ChunkedUpload upload = new ChunkedUpload(0, 4, null, null);
+
+        assertEquals(0, upload.getChunkCount());
+        assertEquals(0, upload.offset());
+        assertTrue(upload.claimFinalize());
+    }
+
+    // =======================
+    // OUT-OF-ORDER CHUNKS
+    // =======================
+
+    @Test
+    void markReceived_outOfOrder_shouldAdvanceOffsetOnlyOverThePrefix() {
+
+        ChunkedUpload upload = new ChunkedUpload(10, 4, null, null);
+
+        upload.markReceived(2, HASH_C);
+
+        // ✅ Last chunk counts as received, but a sequential upload still resumes at 0
+        assertEquals(0, upload.offset());
+        assertEquals(2, upload.receivedBytes());
+        assertEquals(List.of(0, 1), upload.missingChunks());
+
+        upload.markReceived(0, HASH_A);
+
+        assertEquals(4, upload.offset());
+        assertEquals(List.of(1), upload.missingChunks());
+        assertEquals(List.of(HASH_A, HASH_C), upload.receivedHashes());
+    }
+
+    @Test
+    void tryBegin_shouldRejectChunkInFlightOrReceived() {
+
+        ChunkedUpload upload = new ChunkedUpload(10, 4, null, null);
+
+        assertTrue(upload.tryBegin(1));
+        assertFalse(upload.tryBegin(1));
+
+        // ✅ An aborted write frees the chunk for a retry
+        upload.abort(1);
+        assertTrue(upload.tryBegin(1));
+
+        upload.markReceived(1, HASH_B);
+        assertFalse(upload.tryBegin(1));
+    }
+
+    @Test
+    void claimFinalize_shouldSucceedOnceWhenEveryChunkIsIn() {
+
+        ChunkedUpload upload = new ChunkedUpload(8, 4, null, null);
+
+        upload.markReceived(1, HASH_B);
+        assertFalse(upload.claimFinalize());
+
+        upload.markReceived(0, HASH_A);
+        assertTrue(upload.claimFinalize());
+        assertFalse(upload.claimFinalize());
+    }
+
+    // =======================
+    // MANIFEST HASHES
+    // =======================
+
+    @Test
+    void expect_shouldRecordDeclaredHashButNotOverwriteAReceivedOne() {
+
+        ChunkedUpload upload = new ChunkedUpload(8, 4, null, null);
+        assertNull(upload.hash(0));
+
+        upload.expect(0, HASH_A);
+        assertEquals(HASH_A, upload.hash(0));
+        assertFalse(upload.isReceived(0));
+
+        upload.markReceived(1, HASH_B);
+        upload.expect(1, HASH_C);
+        assertEquals(HASH_B, upload.hash(1));
+    }
+
+    @Test
+    void constructor_fromPersistedState_shouldRestoreBitmapAndHashes() {
+
+        ChunkedUpload original = new ChunkedUpload(10, 4, null, null);
+        original.markReceived(0, HASH_A);
+        original.markReceived(2, HASH_C);
+        original.expect(1, HASH_B);
+
+        // Rebuilt after a restart from the row's bitmap and hashes
+        ChunkedUpload restored = new ChunkedUpload(10, 4, original.bitmap(), original.hashes());
+
+        assertEquals(List.of(1), restored.missingChunks());
+        assertEquals(HASH_B, restored.hash(1));
+        assertEquals(List.of(HASH_A, HASH_C), restored.receivedHashes());
+        assertEquals(4, restored.offset());
+    }
+
+    // =======================
+    // SEQUENTIAL (PATCH) UPLOADS
+    // =======================
+
+    @Test
+    void partialChunk_shouldCountTowardsOffsetUntilTakenBack() throws IOException {
+
+        ChunkedUpload upload = new ChunkedUpload(10, 4, null, null);
+        upload.markReceived(0, HASH_A);
+
+        ChunkWriter writer = new ChunkWriter(tempDir.resolve("partial"));
+        writer.write(new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        assertNull(upload.keepPartial(1, writer));
+
+        // ✅ A PATCH that broke off mid-chunk resumes from the exact byte
+        assertEquals(7, upload.offset());
+        assertEquals(7, upload.receivedBytes());
+
+        assertNull(upload.takePartial(2));
+        assertSame(writer, upload.takePartial(1));
+        assertEquals(4, upload.offset());
+        writer.discard();
+    }
+
+    @Test
+    void tryBeginSequential_shouldAllowOnlyOnePatchAtATime() {
+
+        ChunkedUpload upload = new ChunkedUpload(10, 4, null, null);
+
+        assertTrue(upload.tryBeginSequential());
+        assertFalse(upload.tryBeginSequential());
+
+        upload.endSequential();
+        assertTrue(upload.tryBeginSequential());
+    }
+}
@@ -0,0 +1,126 @@
+package com.nikworkspace.AnyShare.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerkleTreeTest {
+
+    // =======================
+    // SMALL TREES
+    // =======================
+
+    @Test
+    void root_ofEmptyFile_shouldBeHashOfNothing() {
+
+        byte[] root = MerkleTree.root(new byte[0]);
+
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", HexFormat.of().formatHex(root));
+        assertEquals(1, MerkleTree.levels(new byte[0]).size());
+    }
+
+    @Test
+    void root_ofOneChunk_shouldBeItsLeafHashNotTheChunkHash() {
+
+        byte[] chunk = chunkHashes(1);
+
+        byte[] root = MerkleTree.root(chunk);
+
+        // ✅ Leaf is domain-separated: SHA-256(0x00 || chunkHash)
+        assertArrayEquals(sha256(new byte[]{0x00}, chunk), root);
+        assertFalse(Arrays.equals(chunk, root));
+    }
+
+    @Test
+    void levels_ofThreeChunks_shouldPromoteTheOddNode() {
+
+        byte[] hashes = chunkHashes(3);
+        byte[] leaf0 = sha256(new byte[]{0x00}, Arrays.copyOfRange(hashes, 0, 32));
+        byte[] leaf1 = sha256(new byte[]{0x00}, Arrays.copyOfRange(hashes, 32, 64));
+        byte[] leaf2 = sha256(new byte[]{0x00}, Arrays.copyOfRange(hashes, 64, 96));
+
+        List<byte[][]> levels = MerkleTree.levels(hashes);
+
+        assertEquals(3, levels.size());
+        assertEquals(3, levels.get(0).length);
+        assertEquals(2, levels.get(1).length);
+        assertArrayEquals(sha256(new byte[]{0x01}, leaf0, leaf1), levels.get(1)[0]);
+        // ✅ Last leaf moves up unchanged rather than being paired with itself
+        assertArrayEquals(leaf2, levels.get(1)[1]);
+        assertArrayEquals(sha256(new byte[]{0x01}, levels.get(1)[0], leaf2), levels.get(2)[0]);
+    }
+
+    @Test
+    void root_shouldNotCollideWhenInteriorNodesArePassedOffAsChunks() {
+
+        // Second-preimage attempt: present the two level-1 nodes of a 4-chunk tree as a 2-chunk file
+        byte[] hashes = chunkHashes(4);
+        byte[][] interior = MerkleTree.levels(hashes).get(1);
+        byte[] forged = new byte[64];
+        System.arraycopy(interior[0], 0, forged, 0, 32);
+        System.arraycopy(interior[1], 0, forged, 32, 32);
+
+        assertFalse(Arrays.equals(MerkleTree.root(hashes), MerkleTree.root(forged)));
+    }
+
+    // =======================
+    // RFC 6962
+    // =======================
+
+    @Test
+    void root_shouldMatchRfc6962MerkleTreeHash() {
+
+        for (int count = 1; count <= 33; count++) {
+            byte[] hashes = chunkHashes(count);
+            assertArrayEquals(rfc6962(hashes, 0, count), MerkleTree.root(hashes), "count=" + count);
+        }
+    }
+
+    @Test
+    void root_ofLargeFile_shouldMatchRfc6962WhenHashedInParallel() {
+
+        // Above the parallel threshold, and not a power of two
+        int count = 5001;
+        byte[] hashes = chunkHashes(count);
+
+        assertArrayEquals(rfc6962(hashes, 0, count), MerkleTree.root(hashes));
+    }
+
+    /**
+     * MTH(D[n]) as written in RFC 6962 section 2.1: split at the largest power of two below n
+     */
+    private static byte[] rfc6962(byte[] hashes, int from, int count) {
+        if (count == 1) {
+            return sha256(new byte[]{0x00}, Arrays.copyOfRange(hashes, from * 32, (from + 1) * 32));
+        }
+        int split = Integer.highestOneBit(count - 1);
+        return sha256(new byte[]{0x01}, rfc6962(hashes, from, split), rfc6962(hashes, from + split, count - split));
+    }
+
+    private static byte[] chunkHashes(int count) {
+        byte[] hashes = new byte[count * 32];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(sha256(("chunk " + i).getBytes(StandardCharsets.UTF_8)), 0, hashes, i * 32, 32);
+        }
+        return hashes;
+    }
+
+    private static byte[] sha256(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                digest.update(part);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
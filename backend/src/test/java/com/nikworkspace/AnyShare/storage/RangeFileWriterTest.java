@@ -0,0 +1,204 @@
+package com.nikworkspace.AnyShare.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeFileWriterTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final long CHUNK_SIZE = 4;
+    private static final String ETAG = RangeFileWriter.etag(UUID.randomUUID(), CONTENT.length());
+
+    @TempDir
+    Path tempDir;
+
+    private List<Path> chunks;
+    private RangeFileWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // "0123", "4567", "89"
+        chunks = List.of(
+                Files.writeString(tempDir.resolve("c0"), "0123"),
+                Files.writeString(tempDir.resolve("c1"), "4567"),
+                Files.writeString(tempDir.resolve("c2"), "89"));
+        writer = new RangeFileWriter(false, 0);
+    }
+
+    // =======================
+    // FULL FILE AND CONDITIONALS
+    // =======================
+
+    @Test
+    void write_withoutRange_shouldSendWholeFileAcrossChunks() throws IOException {
+
+        MockHttpServletResponse response = get(request(null));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void write_withMatchingIfNoneMatch_shouldAnswerNotModified() throws IOException {
+
+        MockHttpServletRequest request = request(null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG);
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void write_withMatchingIfRange_shouldHonorTheRange() throws IOException {
+
+        MockHttpServletRequest request = request("bytes=4-5");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("45", response.getContentAsString());
+    }
+
+    @Test
+    void write_withStaleIfRange_shouldSendWholeFile() throws IOException {
+
+        MockHttpServletRequest request = request("bytes=4-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    // =======================
+    // SINGLE RANGES
+    // =======================
+
+    @Test
+    void write_rangeSpanningChunks_shouldSendPartialContent() throws IOException {
+
+        MockHttpServletResponse response = get(request("bytes=2-6"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("23456", response.getContentAsString());
+        assertEquals("bytes 2-6/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getContentLengthLong());
+    }
+
+    @Test
+    void write_suffixAndOpenEndedRanges_shouldBeClampedToTheFile() throws IOException {
+
+        assertEquals("789", get(request("bytes=-3")).getContentAsString());
+        assertEquals("89", get(request("bytes=8-")).getContentAsString());
+        assertEquals("bytes 6-9/10", get(request("bytes=6-100")).getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void write_rangeInOneChunk_shouldHandItToSendfile() throws IOException {
+
+        RangeFileWriter sendfileWriter = new RangeFileWriter(true, 0);
+        MockHttpServletRequest request = request("bytes=5-6");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sendfileWriter.write(request, response, chunks, CHUNK_SIZE, CONTENT.length(), ETAG, "text/plain", "attachment");
+
+        // ✅ Tomcat sends bytes [1, 3) of the second chunk file; nothing goes through the response stream
+        assertEquals(206, response.getStatus());
+        assertEquals(chunks.get(1).toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(3L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(2, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    // =======================
+    // MULTIPLE RANGES
+    // =======================
+
+    @Test
+    void write_multipleRanges_shouldSendMultipartByteranges() throws IOException {
+
+        MockHttpServletResponse response = get(request("bytes=0-1,7-8"));
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 7-8/10\r\n\r\n78\r\n"));
+        // ✅ Declared length matches what was written
+        assertEquals(body.getBytes(StandardCharsets.US_ASCII).length, response.getContentLengthLong());
+    }
+
+    @Test
+    void write_withOneUnsatisfiableRange_shouldServeTheOthers() throws IOException {
+
+        MockHttpServletResponse response = get(request("bytes=0-1,50-60"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+        assertEquals("bytes 0-1/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    // =======================
+    // UNSATISFIABLE RANGES
+    // =======================
+
+    @Test
+    void write_rangePastTheEnd_shouldAnswerRangeNotSatisfiable() throws IOException {
+
+        MockHttpServletResponse response = get(request("bytes=20-30"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void write_malformedRange_shouldAnswerRangeNotSatisfiable() throws IOException {
+
+        assertEquals(416, get(request("bytes=abc")).getStatus());
+    }
+
+    @Test
+    void write_rangesAddingUpToMoreThanTheFile_shouldAnswerRangeNotSatisfiable() throws IOException {
+
+        // Overlapping ranges would amplify a small file into a large response
+        assertEquals(416, get(request("bytes=0-9,0-9")).getStatus());
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, chunks, CHUNK_SIZE, CONTENT.length(), ETAG, "text/plain", "attachment");
+        return response;
+    }
+}
@@ -19,41 +19,17 @@ const SessionCreator = () => {
     addLog('Creating new session...', 'info');
 
     try {
-      // Step 1: Create session
-      const createData = await createSession();
+      // Create session and join as sender in a single request
+      const createData = await createSession('DESKTOP', true);
       addLog(`✅ Session created: ${createData.sessionId}`, 'success');
+      addLog(`✅ Joined as ${createData.peerId}`, 'success');
 
       setSession({
         sessionId: createData.sessionId,
         roomCode: createData.roomCode,
         expiresAt: createData.expiresAt,
-      });
-
-      // Step 2: Sender joins their own session
-      addLog('Joining session as sender...', 'info');
-
-      const apiBaseUrl = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api/v1';
-      const joinResponse = await fetch(`${apiBaseUrl}/sessions/${createData.roomCode}/join`, {
-        method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify({
-          deviceType: 'DESKTOP',
-          userAgent: navigator.userAgent,
-        }),
-      });
-
-      if (!joinResponse.ok) {
-        const errorData = await joinResponse.json();
-        throw new Error(errorData.errorMessage || 'Failed to join session');
-      }
-
-      const joinData = await joinResponse.json();
-      addLog(`✅ Joined as ${joinData.peerId}`, 'success');
-
-      // Step 3: Update session with peer info and token
-      setSession({
-        peerId: joinData.peerId,
-        token: joinData.token,
+        peerId: createData.peerId,
+        token: createData.token,
       });
 
     } catch (error) {
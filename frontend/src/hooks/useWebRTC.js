@@ -59,6 +59,9 @@ export const useWebRTC = (sendMessage) => {
 
       if (pc.connectionState === 'connected') {
         addLog('✅ WebRTC peer connection established!', 'success');
+
+        // Lets the server time connection setup; not relayed to the other peer
+        sendMessage({ type: MESSAGE_TYPES.CONNECTED });
       } else if (pc.connectionState === 'disconnected') {
         addLog('⚠️ WebRTC peer connection disconnected', 'warning');
 
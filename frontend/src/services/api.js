@@ -49,10 +49,11 @@ api.interceptors.response.use(
 /**
  * Create a new session
  */
-export const createSession = async (deviceType = 'DESKTOP') => {
+export const createSession = async (deviceType = 'DESKTOP', joinAsSender = false) => {
   const response = await api.post('/sessions', {
     deviceType,
     userAgent: navigator.userAgent,
+    joinAsSender,
   });
   return response.data;
 };
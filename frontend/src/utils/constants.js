@@ -55,6 +55,7 @@ export const MESSAGE_TYPES = {
   ERROR: 'ERROR',
   FILE_METADATA: 'FILE_METADATA',
   FILE_COMPLETE: 'FILE_COMPLETE',
+  CONNECTED: 'CONNECTED',
 };
 
 // Connection States